@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Run the suite as N shards in parallel local JVMs and merge their Allure results into target/allure-results,
+# "mvn allure:report" builds the report from there.
+# Every shard plans from the same snapshot of test-durations.properties (shard.history.file).
+# On CI pass the same history file to every agent: "mvn test -Pshard -Dshard.count=N -Dshard.index=I
+# -Dshard.history.file=<file>", collect target/shards/shard-I/allure-results and merge them the same way as below.
+# Usage: ./run-shards.sh [shard count] [extra maven arguments...]
+set -uo pipefail
+
+SHARD_COUNT=${1:-2}
+shift || true
+SHARDS_DIR=target/shards
+HISTORY_FILE=test-durations.properties
+SHARD_HISTORY_FILE=$SHARDS_DIR/test-durations.properties
+MERGED_RESULTS_DIR=target/allure-results
+
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt "$@" || exit 1
+# Results of previous runs must not leak into the report
+rm -rf "$SHARDS_DIR" "$MERGED_RESULTS_DIR"
+mkdir -p "$SHARDS_DIR"
+# Shards merge their durations into the history file while others may still be planning, so they plan from a copy
+if [[ -f "$HISTORY_FILE" ]]; then
+    cp "$HISTORY_FILE" "$SHARD_HISTORY_FILE"
+fi
+
+pids=()
+for ((index = 0; index < SHARD_COUNT; index++)); do
+    mvn -B -o -Pshard surefire:test -Dshard.count="$SHARD_COUNT" -Dshard.index="$index" \
+        -Dshard.history.file="$SHARD_HISTORY_FILE" "$@" \
+        > "$SHARDS_DIR/shard-$index.log" 2>&1 &
+    pids+=($!)
+done
+
+status=0
+for index in "${!pids[@]}"; do
+    if ! wait "${pids[$index]}"; then
+        echo "Shard $index failed, see $SHARDS_DIR/shard-$index.log"
+        status=1
+    fi
+done
+
+java -cp "target/classes:$(cat target/classpath.txt)" utils.AllureResultsMerger "$MERGED_RESULTS_DIR" \
+    $(for ((index = 0; index < SHARD_COUNT; index++)); do echo "$SHARDS_DIR/shard-$index/allure-results"; done)
+exit $status
@@ -0,0 +1,256 @@
+package factory.driver;
+
+import utils.Configuration;
+import utils.LatencyHistogram;
+import utils.Log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run-wide registry of WebDriver command latencies.
+ * Every command is counted in a histogram per command and per page-object method
+ * (known from steps entered by {@link utils.StepTimingAspect}, so it needs the AspectJ agent),
+ * and kept as a trace event (up to {@link #MAX_TRACE_EVENTS}) for the Chrome trace-event timeline.
+ * HTTP requests of remote sessions made with {@link PooledHttpClientFactory} are counted per request path.
+ */
+public final class CommandMetrics {
+
+    private static final int MAX_TRACE_EVENTS = 200_000;
+    private static final String SUMMARY_FILE = "webdriver-commands.txt";
+    private static final String TRACE_FILE = "webdriver-trace.json";
+
+    private static final Map<String, LatencyHistogram> commandHistograms = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> pageMethodHistograms = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> httpHistograms = new ConcurrentHashMap<>();
+    private static final Queue<TraceEvent> traceEvents = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger traceEventCount = new AtomicInteger();
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    private static final ThreadLocal<PageMethods> pageMethods = ThreadLocal.withInitial(PageMethods::new);
+    private static final Configuration configuration = Configuration.instance();
+
+    private CommandMetrics() {
+        // Empty constructor
+    }
+
+    /**
+     * Set name of the test running in the current thread, it is attached to recorded commands.
+     *
+     * @param strTestName test name or null when test is finished
+     */
+    public static void setCurrentTest(String strTestName) {
+        if (strTestName == null) {
+            currentTest.remove();
+        } else {
+            currentTest.set(strTestName);
+        }
+    }
+
+    /**
+     * Record executed command.
+     *
+     * @param strCommand    command name
+     * @param startNanos    System.nanoTime() when command started
+     * @param durationNanos command duration in nanoseconds
+     * @param failed        whether command threw exception
+     */
+    public static void record(String strCommand, long startNanos, long durationNanos, boolean failed) {
+        String pageMethod = pageMethods.get().current();
+        commandHistograms.computeIfAbsent(strCommand, key -> new LatencyHistogram()).record(durationNanos);
+        if (pageMethod != null) {
+            pageMethodHistograms.computeIfAbsent(pageMethod, key -> new LatencyHistogram()).record(durationNanos);
+        }
+        if (traceEventCount.incrementAndGet() <= MAX_TRACE_EVENTS) {
+            traceEvents.add(new TraceEvent(strCommand, startNanos, durationNanos,
+                    Thread.currentThread().getId(), Thread.currentThread().getName(),
+                    currentTest.get(), pageMethod, failed));
+        }
+    }
+
+    /**
+     * Record HTTP request sent to remote WebDriver server, including connection setup.
+     *
+     * @param strRequest    request method and path with ids replaced
+     * @param durationNanos request duration in nanoseconds
+     */
+    public static void recordHttp(String strRequest, long durationNanos) {
+        httpHistograms.computeIfAbsent(strRequest, key -> new LatencyHistogram()).record(durationNanos);
+    }
+
+    /**
+     * Write per-run summary and Chrome trace-event JSON timeline into provided directory.
+     * Does nothing when no command was recorded.
+     *
+     * @param strDirectory output directory
+     */
+    public static synchronized void export(String strDirectory) {
+        if (commandHistograms.isEmpty() && httpHistograms.isEmpty()) {
+            return;
+        }
+        try {
+            Path directory = Files.createDirectories(Paths.get(strDirectory));
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(SUMMARY_FILE), StandardCharsets.UTF_8)) {
+                LatencyHistogram.writeReport(writer, "WebDriver commands", commandHistograms);
+                writer.write(System.lineSeparator());
+                LatencyHistogram.writeReport(writer, "Page-object methods (time spent in WebDriver commands)", pageMethodHistograms);
+                if (!httpHistograms.isEmpty()) {
+                    writer.write(System.lineSeparator());
+                    LatencyHistogram.writeReport(writer, "Remote HTTP requests", httpHistograms);
+                }
+            }
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(TRACE_FILE), StandardCharsets.UTF_8)) {
+                writeTrace(writer);
+            }
+            Log.info("CM: WebDriver command metrics are written to {}", directory.toAbsolutePath());
+        } catch (IOException e) {
+            Log.error("CM: Problem during WebDriver command metrics export: {}", e.getMessage());
+        }
+    }
+
+    private static void writeTrace(Writer writer) throws IOException {
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        // Timeline starts with the first recorded command
+        long origin = traceEvents.stream().mapToLong(event -> event.startNanos).min().orElse(0);
+        boolean first = true;
+        for (TraceEvent event : traceEvents) {
+            if (!first) {
+                writer.write(",\n");
+            }
+            first = false;
+            writer.write("{\"name\":" + jsonString(event.command)
+                    + ",\"cat\":\"webdriver\",\"ph\":\"X\",\"pid\":1"
+                    + ",\"tid\":" + event.threadId
+                    + ",\"ts\":" + TimeUnit.NANOSECONDS.toMicros(event.startNanos - origin)
+                    + ",\"dur\":" + TimeUnit.NANOSECONDS.toMicros(event.durationNanos)
+                    + ",\"args\":{\"thread\":" + jsonString(event.threadName)
+                    + ",\"test\":" + jsonString(event.test)
+                    + ",\"page\":" + jsonString(event.pageMethod)
+                    + ",\"failed\":" + event.failed + "}}");
+        }
+        writer.write("]}");
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder("\"");
+        for (char character : value.toCharArray()) {
+            if (character == '"' || character == '\\') {
+                builder.append('\\').append(character);
+            } else if (character < 0x20) {
+                builder.append(String.format("\\u%04x", (int) character));
+            } else {
+                builder.append(character);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Enter Allure step, called by {@link utils.StepTimingAspect} for every {@code @Step} method.
+     * Page-object method of the commands is resolved here once per step instead of per command:
+     * the innermost method of a concrete page object, or the innermost BasePage helper
+     * when command is issued directly by BasePage. Every call should be paired with {@link #exitStep()}.
+     *
+     * @param declaringType class declaring the step method
+     * @param strStepName   "Class.method"
+     */
+    public static void enterStep(Class<?> declaringType, String strStepName) {
+        final String strPackage = declaringType.getName();
+        if (!strPackage.startsWith("pages.")) {
+            pageMethods.get().pushInherited();
+        } else {
+            pageMethods.get().push(strStepName, !strPackage.startsWith("pages.basePage."));
+        }
+    }
+
+    /**
+     * Leave step entered by {@link #enterStep(Class, String)}.
+     */
+    public static void exitStep() {
+        pageMethods.get().pop();
+    }
+
+    /**
+     * @return whether commands are recorded ("driver.metrics.enabled" property)
+     */
+    public static boolean isEnabled() {
+        return configuration.getDriverMetricsEnabled();
+    }
+
+    /**
+     * Page-object methods of the steps running in one thread.
+     */
+    private static class PageMethods {
+        private String[] names = new String[16];
+        private boolean[] concrete = new boolean[16];
+        private int size;
+
+        private void push(String strName, boolean concretePage) {
+            // Concrete page object method is kept when it calls BasePage helpers
+            if (!concretePage && size > 0 && concrete[size - 1]) {
+                pushInherited();
+            } else {
+                add(strName, concretePage);
+            }
+        }
+
+        private void pushInherited() {
+            add(size > 0 ? names[size - 1] : null, size > 0 && concrete[size - 1]);
+        }
+
+        private void add(String strName, boolean concretePage) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                concrete = Arrays.copyOf(concrete, size * 2);
+            }
+            names[size] = strName;
+            concrete[size++] = concretePage;
+        }
+
+        private void pop() {
+            if (size > 0) {
+                names[--size] = null;
+            }
+        }
+
+        private String current() {
+            return size > 0 ? names[size - 1] : null;
+        }
+    }
+
+    private static class TraceEvent {
+        private final String command;
+        private final long startNanos;
+        private final long durationNanos;
+        private final long threadId;
+        private final String threadName;
+        private final String test;
+        private final String pageMethod;
+        private final boolean failed;
+
+        private TraceEvent(String command, long startNanos, long durationNanos, long threadId,
+                           String threadName, String test, String pageMethod, boolean failed) {
+            this.command = command;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.test = test;
+            this.pageMethod = pageMethod;
+            this.failed = failed;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package factory.driver;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Thread-confined holder of the WebDriver used by the current test thread.
+ * Every binding remembers its owner (test class instance), so stale bindings
+ * left on pooled worker threads are never handed to another owner.
+ */
+public final class DriverContext {
+
+    private static final ThreadLocal<Binding> currentBinding = new ThreadLocal<>();
+
+    private DriverContext() {
+        // Empty constructor
+    }
+
+    /**
+     * Bind WebDriver to the current thread on behalf of provided owner.
+     *
+     * @param owner  object which leased the driver
+     * @param driver WebDriver object
+     */
+    public static void bind(Object owner, WebDriver driver) {
+        currentBinding.set(new Binding(owner, driver));
+    }
+
+    /**
+     * Get WebDriver bound to the current thread by provided owner.
+     *
+     * @param owner object which leased the driver
+     * @return WebDriver object or null if current thread has no driver of this owner
+     */
+    public static WebDriver get(Object owner) {
+        Binding binding = currentBinding.get();
+        return binding != null && binding.owner == owner ? binding.driver : null;
+    }
+
+    /**
+     * Get WebDriver bound to the current thread regardless of owner.
+     *
+     * @return WebDriver object or null if nothing is bound
+     */
+    public static WebDriver current() {
+        Binding binding = currentBinding.get();
+        return binding != null ? binding.driver : null;
+    }
+
+    /**
+     * Remove binding of the current thread in case it belongs to provided owner.
+     *
+     * @param owner object which leased the driver
+     */
+    public static void unbind(Object owner) {
+        Binding binding = currentBinding.get();
+        if (binding != null && binding.owner == owner) {
+            currentBinding.remove();
+        }
+    }
+
+    private static class Binding {
+        private final Object owner;
+        private final WebDriver driver;
+
+        private Binding(Object owner, WebDriver driver) {
+            this.owner = owner;
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package factory.driver;
+
+import exceptions.WebDriverFactoryException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import utils.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admits new session requests only while Grid has free slots, so requests do not queue at the hub
+ * and do not fail by new session timeout.
+ * Hub status is polled periodically, admission permits are set to free slots minus
+ * session requests which are in flight. Permit of created session is consumed: its slot is busy
+ * till the next poll reports it free again, so sessions do not need to be tracked till quit.
+ * Taking permit and counting request in flight happen under the same lock as the poll, so no request
+ * is admitted without being counted. Waiting threads are admitted in arrival order. Both Grid 4 "/status" (slots of nodes)
+ * and Grid 3 "/grid/api/hub" (slot counts) are supported, when neither reports slots requests are not limited.
+ */
+public class GridAdmissionControl {
+
+    private static final String GRID4_STATUS_PATH = "/status";
+    private static final String GRID3_STATUS_PATH = "/grid/api/hub";
+    private static final int STATUS_TIMEOUT_MILLIS = 5000;
+    // Permits used while free slots are unknown
+    private static final int UNLIMITED = Integer.MAX_VALUE / 2;
+
+    private final String strHubOrigin;
+    private final long admissionTimeoutMillis;
+    // Tickets of waiting threads in arrival order
+    private final Deque<Object> waitingRequests = new ArrayDeque<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "grid-status-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Can go below zero when fewer slots are free than permits were handed out
+    private int permits;
+    private int inFlight;
+    private int lastFreeSlots = Integer.MIN_VALUE;
+
+    /**
+     * Create admission control and start polling of hub status.
+     *
+     * @param hubUrl                 Grid URL, e.g. "http://host:4444/wd/hub"
+     * @param pollIntervalMillis     hub status poll interval
+     * @param admissionTimeoutMillis maximum time to wait for a free slot
+     */
+    public GridAdmissionControl(URL hubUrl, long pollIntervalMillis, long admissionTimeoutMillis) {
+        this.strHubOrigin = hubUrl.getProtocol() + "://" + hubUrl.getAuthority();
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        poll();
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wait for a free slot and create session in it.
+     *
+     * @param sessionSupplier creates new remote session
+     * @return created session
+     */
+    public WebDriver admit(Supplier<WebDriver> sessionSupplier) {
+        acquire();
+        boolean created = false;
+        try {
+            WebDriver driver = sessionSupplier.get();
+            created = true;
+            return driver;
+        } finally {
+            synchronized (this) {
+                inFlight--;
+                if (!created) {
+                    permits++;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop polling of hub status.
+     */
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * @return number of permits available for new session requests
+     */
+    public synchronized int getAvailablePermits() {
+        return permits;
+    }
+
+    /**
+     * Wait in arrival order for a permit, take it and count the request in flight.
+     */
+    private synchronized void acquire() {
+        final Object ticket = new Object();
+        waitingRequests.addLast(ticket);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(admissionTimeoutMillis);
+        try {
+            while (waitingRequests.peekFirst() != ticket || permits <= 0) {
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw new WebDriverFactoryException("No free Grid slot at " + strHubOrigin + " in "
+                            + admissionTimeoutMillis + " ms");
+                }
+                wait(remainingMillis);
+            }
+            permits--;
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverFactoryException("Interrupted while waiting for free Grid slot");
+        } finally {
+            waitingRequests.remove(ticket);
+            // Next request in arrival order can take remaining permits
+            notifyAll();
+        }
+    }
+
+    private void poll() {
+        final int freeSlots = readFreeSlots();
+        synchronized (this) {
+            permits = freeSlots < 0 ? UNLIMITED : freeSlots - inFlight;
+            notifyAll();
+            if (freeSlots != lastFreeSlots) {
+                Log.debug("GAC: Grid {} has {} free slot(s), {} session request(s) in flight", strHubOrigin,
+                        freeSlots < 0 ? "unknown" : freeSlots, inFlight);
+                lastFreeSlots = freeSlots;
+            }
+        }
+    }
+
+    /**
+     * @return free slots reported by hub or -1 when they are unknown
+     */
+    @SuppressWarnings("unchecked")
+    private int readFreeSlots() {
+        try {
+            Map<String, Object> status = readJson(strHubOrigin + GRID4_STATUS_PATH);
+            Object value = status == null ? null : status.get("value");
+            if (value instanceof Map && ((Map<String, Object>) value).get("nodes") instanceof List) {
+                int freeSlots = 0;
+                for (Object node : (List<Object>) ((Map<String, Object>) value).get("nodes")) {
+                    Map<String, Object> nodeMap = (Map<String, Object>) node;
+                    if (!"UP".equals(nodeMap.get("availability")) || !(nodeMap.get("slots") instanceof List)) {
+                        continue;
+                    }
+                    for (Object slot : (List<Object>) nodeMap.get("slots")) {
+                        if (((Map<String, Object>) slot).get("session") == null) {
+                            freeSlots++;
+                        }
+                    }
+                }
+                return freeSlots;
+            }
+            Map<String, Object> hub = readJson(strHubOrigin + GRID3_STATUS_PATH);
+            Object slotCounts = hub == null ? null : hub.get("slotCounts");
+            if (slotCounts instanceof Map && ((Map<String, Object>) slotCounts).get("free") instanceof Number) {
+                return ((Number) ((Map<String, Object>) slotCounts).get("free")).intValue();
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.warn("GAC: Grid status of {} can not be read: {}", strHubOrigin, e.getMessage());
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readJson(String strUrl) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(strUrl).openConnection();
+        connection.setConnectTimeout(STATUS_TIMEOUT_MILLIS);
+        connection.setReadTimeout(STATUS_TIMEOUT_MILLIS);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            try (InputStream input = connection.getInputStream()) {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                    output.write(buffer, 0, read);
+                }
+                return new Json().toType(new String(output.toByteArray(), StandardCharsets.UTF_8), Map.class);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package factory.driver;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.openqa.selenium.internal.WrapsElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorator which records latency of every WebDriver command into {@link CommandMetrics}
+ * and result of every command into {@link SessionHealth} of the session.
+ * Decorated driver exposes all interfaces of the real driver (JavascriptExecutor, TakesScreenshot,
+ * HasInputDevices, ...). Elements, navigation, options and target locator it returns are decorated too,
+ * and decorated elements are unwrapped before they are passed back to the real driver.
+ */
+public final class InstrumentedWebDriver {
+
+    private static final Map<Class<?>, Class<?>[]> interfacesCache = new ConcurrentHashMap<>();
+
+    private InstrumentedWebDriver() {
+        // Empty constructor
+    }
+
+    /**
+     * Decorate web driver.
+     *
+     * @param driver real WebDriver object
+     * @return decorated WebDriver object
+     */
+    public static WebDriver instrument(WebDriver driver) {
+        return instrument(driver, true, null);
+    }
+
+    /**
+     * Decorate web driver.
+     *
+     * @param driver        real WebDriver object
+     * @param recordMetrics whether command latencies are recorded into {@link CommandMetrics}
+     * @param health        health which commands are recorded to, null when session health is not tracked
+     * @return decorated WebDriver object
+     */
+    static WebDriver instrument(WebDriver driver, boolean recordMetrics, SessionHealth health) {
+        return (WebDriver) decorate(driver, "driver", null, WrapsDriver.class, recordMetrics, health);
+    }
+
+    /**
+     * Get real driver behind decorated one.
+     *
+     * @param driver decorated or real WebDriver object
+     * @return real WebDriver object
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        return (WebDriver) unwrapArgument(driver);
+    }
+
+    private static Object decorate(Object target, String strRole, Object driverProxy, Class<?> extraInterface,
+                                   boolean recordMetrics, SessionHealth health) {
+        Class<?>[] interfaces = interfacesCache.computeIfAbsent(target.getClass(), InstrumentedWebDriver::allInterfaces);
+        if (extraInterface != null && !Arrays.asList(interfaces).contains(extraInterface)) {
+            interfaces = Arrays.copyOf(interfaces, interfaces.length + 1);
+            interfaces[interfaces.length - 1] = extraInterface;
+        }
+        Handler handler = new Handler(target, strRole, driverProxy, recordMetrics, health);
+        Object proxy = Proxy.newProxyInstance(InstrumentedWebDriver.class.getClassLoader(), interfaces, handler);
+        if (driverProxy == null) {
+            handler.driverProxy = proxy;
+        }
+        return proxy;
+    }
+
+    private static Class<?>[] allInterfaces(Class<?> type) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            collectInterfaces(current, interfaces);
+        }
+        interfaces.removeIf(anInterface -> !java.lang.reflect.Modifier.isPublic(anInterface.getModifiers()));
+        return interfaces.toArray(new Class<?>[0]);
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> interfaces) {
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (interfaces.add(anInterface)) {
+                collectInterfaces(anInterface, interfaces);
+            }
+        }
+    }
+
+    private static Object unwrapArgument(Object argument) {
+        if (argument != null && Proxy.isProxyClass(argument.getClass())
+                && Proxy.getInvocationHandler(argument) instanceof Handler) {
+            return ((Handler) Proxy.getInvocationHandler(argument)).target;
+        }
+        if (argument instanceof Object[]) {
+            Object[] array = ((Object[]) argument).clone();
+            for (int index = 0; index < array.length; index++) {
+                array[index] = unwrapArgument(array[index]);
+            }
+            return array;
+        }
+        if (argument instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<?>) argument) {
+                list.add(unwrapArgument(item));
+            }
+            return list;
+        }
+        return argument;
+    }
+
+    private static String lowerFirst(String value) {
+        return Character.toLowerCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private static class Handler implements InvocationHandler {
+        private final Object target;
+        private final String role;
+        private final boolean recordMetrics;
+        private final SessionHealth health;
+        private Object driverProxy;
+
+        private Handler(Object target, String role, Object driverProxy, boolean recordMetrics, SessionHealth health) {
+            this.target = target;
+            this.role = role;
+            this.driverProxy = driverProxy;
+            this.recordMetrics = recordMetrics;
+            this.health = health;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return args[0] == proxy || target.equals(unwrapArgument(args[0]));
+                case "hashCode":
+                    return target.hashCode();
+                case "toString":
+                    return target.toString();
+                case "getWrappedElement":
+                    if (method.getDeclaringClass() == WrapsElement.class) {
+                        return target;
+                    }
+                    break;
+                case "getWrappedDriver":
+                    if (method.getDeclaringClass() == WrapsDriver.class && target instanceof WebDriver) {
+                        return target;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            Object[] realArgs = args == null ? null : (Object[]) unwrapArgument(args);
+            final String command = role + "." + method.getName();
+            final long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                return decorateResult(method, method.invoke(target, realArgs));
+            } catch (InvocationTargetException e) {
+                failure = e.getCause();
+                throw failure;
+            } finally {
+                if (recordMetrics) {
+                    CommandMetrics.record(command, start, System.nanoTime() - start, failure != null);
+                }
+                if (health != null) {
+                    health.recordCommand(failure);
+                }
+            }
+        }
+
+        private Object decorateResult(Method method, Object result) {
+            if (result == null) {
+                return null;
+            }
+            if (result == target || result == unwrapArgument(driverProxy)) {
+                return driverProxy;
+            }
+            if (result instanceof WebElement) {
+                return decorate(result, "element", driverProxy, WrapsElement.class, recordMetrics, health);
+            }
+            if (result instanceof List && method.getReturnType() == List.class) {
+                List<Object> decorated = new ArrayList<>();
+                for (Object item : (Collection<?>) result) {
+                    decorated.add(item instanceof WebElement
+                            ? decorate(item, "element", driverProxy, WrapsElement.class, recordMetrics, health) : item);
+                }
+                return decorated;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isInterface() && returnType.getName().startsWith("org.openqa.selenium.")
+                    && returnType.getName().indexOf('$') > 0) {
+                // WebDriver.Options, Navigation, TargetLocator, Timeouts, Window
+                return decorate(result, lowerFirst(returnType.getSimpleName()), driverProxy, null, recordMetrics, health);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package factory.driver;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.internal.OkHttpClient;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP clients for RemoteWebDriver command executors sharing one keep-alive connection pool,
+ * so commands of all sessions reuse open connections to the hub instead of connecting for every command.
+ * Unlike default Selenium client (2 minutes connect and 3 hours read timeout) timeouts are configurable,
+ * so unreachable or hung hub fails the command quickly.
+ * Only GET and DELETE requests are retried on a failed (e.g. stale pooled) connection, POST commands are not
+ * idempotent, so a retried new session or click could create an orphan session or act twice.
+ * Every request can be recorded, e.g. in {@link CommandMetrics}, as "METHOD /path" with session and element ids replaced.
+ */
+public class PooledHttpClientFactory implements HttpClient.Factory {
+
+    // Session and element ids in command paths
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(session|element)/[^/]+");
+
+    private final ConnectionPool connectionPool;
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final ObjLongConsumer<String> requestRecorder;
+
+    /**
+     * Create factory.
+     *
+     * @param maxIdleConnections   maximum number of idle connections kept open
+     * @param keepAliveSeconds     time after which idle connection is closed
+     * @param connectTimeoutMillis connect timeout
+     * @param readTimeoutMillis    read timeout, should be longer than the longest command (e.g. page load)
+     * @param requestRecorder      receives request name and duration in nanoseconds of every request,
+     *                             e.g. {@link CommandMetrics#recordHttp(String, long)}, null when requests are not recorded
+     */
+    public PooledHttpClientFactory(int maxIdleConnections, long keepAliveSeconds, long connectTimeoutMillis,
+                                   long readTimeoutMillis, ObjLongConsumer<String> requestRecorder) {
+        this.connectionPool = new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.requestRecorder = requestRecorder;
+    }
+
+    @Override
+    public HttpClient createClient(URL url) {
+        final okhttp3.OkHttpClient.Builder builder = new okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .followRedirects(true)
+                .followSslRedirects(true);
+        // SauceLabs URL carries credentials as user info
+        if (url.getUserInfo() != null && !url.getUserInfo().isEmpty()) {
+            final String[] credentials = url.getUserInfo().split(":", 2);
+            final String strAuthorization = Credentials.basic(credentials[0], credentials.length > 1 ? credentials[1] : "");
+            builder.authenticator((route, response) -> response.request().header("Authorization") != null
+                    ? null
+                    : response.request().newBuilder().header("Authorization", strAuthorization).build());
+        }
+        final okhttp3.OkHttpClient postClient = builder.build();
+        // Shares connection pool with POST client
+        final okhttp3.OkHttpClient idempotentClient = postClient.newBuilder().retryOnConnectionFailure(true).build();
+        final HttpClient client = new MethodRoutingHttpClient(
+                new OkHttpClient(postClient, url), new OkHttpClient(idempotentClient, url));
+        return requestRecorder != null ? new MeasuredHttpClient(client, requestRecorder) : client;
+    }
+
+    /**
+     * Called by command executor after every session quit. Pool is shared by all sessions,
+     * so idle connections are kept and closed by keep-alive timeout instead.
+     */
+    @Override
+    public void cleanupIdleClients() {
+        // Idle connections are reused by other sessions
+    }
+
+    /**
+     * Close all idle connections.
+     */
+    public void evictIdleConnections() {
+        connectionPool.evictAll();
+    }
+
+    /**
+     * @return number of open connections, idle and in use
+     */
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    private static String commandName(HttpRequest request) {
+        return request.getMethod() + " " + ID_SEGMENT.matcher(request.getUri()).replaceAll("/$1/{id}");
+    }
+
+    /**
+     * Sends POST requests by client which does not retry them, other requests by retrying client.
+     */
+    private static class MethodRoutingHttpClient implements HttpClient {
+        private final HttpClient postClient;
+        private final HttpClient idempotentClient;
+
+        private MethodRoutingHttpClient(HttpClient postClient, HttpClient idempotentClient) {
+            this.postClient = postClient;
+            this.idempotentClient = idempotentClient;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) throws IOException {
+            return request.getMethod() == HttpMethod.POST ? postClient.execute(request) : idempotentClient.execute(request);
+        }
+
+        @Override
+        public void close() throws IOException {
+            postClient.close();
+            idempotentClient.close();
+        }
+    }
+
+    private static class MeasuredHttpClient implements HttpClient {
+        private final HttpClient delegate;
+        private final ObjLongConsumer<String> requestRecorder;
+
+        private MeasuredHttpClient(HttpClient delegate, ObjLongConsumer<String> requestRecorder) {
+            this.delegate = delegate;
+            this.requestRecorder = requestRecorder;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return delegate.execute(request);
+            } finally {
+                requestRecorder.accept(commandName(request), System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
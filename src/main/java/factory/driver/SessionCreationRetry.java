@@ -0,0 +1,71 @@
+package factory.driver;
+
+import exceptions.WebDriverFactoryException;
+import org.openqa.selenium.WebDriver;
+import utils.Log;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries failed session creation. Busy Grid or SauceLabs rejects new sessions, so retries are delayed
+ * by exponential backoff with random jitter, which keeps parallel threads from retrying at the same moment.
+ * Configuration problems ({@link WebDriverFactoryException}) are not retried.
+ */
+public class SessionCreationRetry {
+
+    private final int attempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    /**
+     * @param attempts         number of attempts, at least one attempt is made
+     * @param backoffMillis    backoff before the second attempt, doubled for every next attempt
+     * @param maxBackoffMillis upper bound of backoff
+     */
+    public SessionCreationRetry(int attempts, long backoffMillis, long maxBackoffMillis) {
+        this.attempts = Math.max(1, attempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+        this.maxBackoffMillis = Math.max(0, maxBackoffMillis);
+    }
+
+    /**
+     * Create session, retrying failed creation.
+     *
+     * @param sessionSupplier creates new WebDriver session
+     * @return created WebDriver object
+     */
+    public WebDriver create(Supplier<WebDriver> sessionSupplier) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return sessionSupplier.get();
+            } catch (WebDriverFactoryException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                final long delay = getDelay(attempt);
+                Log.warn("WDF: Session creation attempt {} of {} failed, retrying in {} ms: {}",
+                        attempt, attempts, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Delay after failed attempt, random between half of backoff and full backoff.
+     *
+     * @param attempt number of failed attempt, starting from 1
+     * @return delay in milliseconds
+     */
+    public long getDelay(int attempt) {
+        final long backoff = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+}
@@ -0,0 +1,148 @@
+package factory.driver;
+
+import org.openqa.selenium.InvalidElementStateException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Age, command count and failure count of one WebDriver session, used to recycle long-lived sessions.
+ * Failures which tests and waits cause on purpose (element not found, stale or not interactable, timeouts)
+ * are not counted. Infrastructure errors (browser unreachable, session lost) mark session as broken at once.
+ * Broken session can not be used any more, session over thresholds still works and is recycled when
+ * its owner gives it back, so browser state of running test class is kept.
+ */
+public class SessionHealth {
+
+    // Quit sessions which were not forgotten are dropped with their drivers
+    private static final Map<WebDriver, SessionHealth> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final long createdNanos;
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private volatile String infrastructureError;
+
+    /**
+     * Health of session created now.
+     */
+    public SessionHealth() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * @param createdNanos System.nanoTime() when session was created
+     */
+    public SessionHealth(long createdNanos) {
+        this.createdNanos = createdNanos;
+    }
+
+    /**
+     * Start tracking of provided session.
+     *
+     * @param driver WebDriver object handed out to tests
+     * @param health health which commands of the session are recorded to
+     */
+    static void track(WebDriver driver, SessionHealth health) {
+        sessions.put(driver, health);
+    }
+
+    /**
+     * @param driver WebDriver object handed out to tests
+     * @return health of the session or null when session is not tracked
+     */
+    static SessionHealth of(WebDriver driver) {
+        return sessions.get(driver);
+    }
+
+    /**
+     * Stop tracking of provided session, e.g. when it is quit.
+     *
+     * @param driver WebDriver object handed out to tests
+     */
+    static void forget(WebDriver driver) {
+        sessions.remove(driver);
+    }
+
+    /**
+     * Record executed command.
+     *
+     * @param failure exception thrown by command or null when command succeeded
+     */
+    public void recordCommand(Throwable failure) {
+        commandCount.incrementAndGet();
+        if (failure == null) {
+            return;
+        }
+        if (isInfrastructureError(failure)) {
+            infrastructureError = failure.getClass().getSimpleName();
+        } else if (!isExpectedFailure(failure)) {
+            failureCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return infrastructure error which broke session or null when session works
+     */
+    public String getBrokenReason() {
+        return infrastructureError;
+    }
+
+    /**
+     * Check whether session is broken or over thresholds, threshold below 1 is not checked.
+     *
+     * @param maxAgeSeconds maximum session age
+     * @param maxCommands   maximum number of commands
+     * @param maxFailures   maximum number of unexpected command failures
+     * @return reason why session should be recycled or null when it is healthy
+     */
+    public String getRecycleReason(long maxAgeSeconds, long maxCommands, int maxFailures) {
+        if (infrastructureError != null) {
+            return infrastructureError;
+        }
+        final long ageSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - createdNanos);
+        if (maxAgeSeconds > 0 && ageSeconds >= maxAgeSeconds) {
+            return "age of " + ageSeconds + " s";
+        }
+        if (maxCommands > 0 && commandCount.get() >= maxCommands) {
+            return commandCount.get() + " commands";
+        }
+        if (maxFailures > 0 && failureCount.get() >= maxFailures) {
+            return failureCount.get() + " failed commands";
+        }
+        return null;
+    }
+
+    private static boolean isExpectedFailure(Throwable failure) {
+        return failure instanceof NotFoundException
+                || failure instanceof StaleElementReferenceException
+                || failure instanceof InvalidElementStateException
+                || failure instanceof TimeoutException;
+    }
+
+    /**
+     * @param failure exception thrown by command
+     * @return whether failure means browser or session is lost
+     */
+    public static boolean isInfrastructureError(Throwable failure) {
+        if (failure instanceof UnreachableBrowserException
+                || failure instanceof NoSuchSessionException
+                || failure instanceof SessionNotCreatedException) {
+            return true;
+        }
+        final String strMessage = String.valueOf(failure.getMessage()).toLowerCase(Locale.ROOT);
+        return strMessage.contains("session not found") || strMessage.contains("invalid session id")
+                || strMessage.contains("no such session") || strMessage.contains("not reachable");
+    }
+}
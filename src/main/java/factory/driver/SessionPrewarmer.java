@@ -0,0 +1,122 @@
+package factory.driver;
+
+import org.openqa.selenium.WebDriver;
+import utils.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sessions launched concurrently in background and handed out as test classes start:
+ * at suite start, and as replacements of recycled sessions, so tests do not wait for browser launch.
+ * Claim returns ready session or waits for a launch which is still in progress,
+ * as it finishes earlier than a new launch would.
+ */
+public class SessionPrewarmer {
+
+    private final Deque<WebDriver> readySessions = new ArrayDeque<>();
+    private final Supplier<WebDriver> sessionSupplier;
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "session-prewarmer-" + threadIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int pendingSessions;
+    private boolean closed;
+
+    /**
+     * Create prewarmer, sessions are launched by {@link #prewarm(int)}.
+     *
+     * @param sessionSupplier creates new WebDriver sessions
+     */
+    public SessionPrewarmer(Supplier<WebDriver> sessionSupplier) {
+        this.sessionSupplier = sessionSupplier;
+    }
+
+    /**
+     * Start launching sessions, every session is launched on its own thread.
+     * Does nothing when prewarmer is closed.
+     *
+     * @param count number of sessions to launch
+     */
+    public synchronized void prewarm(int count) {
+        if (closed || count < 1) {
+            return;
+        }
+        pendingSessions += count;
+        for (int index = 0; index < count; index++) {
+            executor.execute(this::launch);
+        }
+        Log.info("SPW: Launching {} WebDriver session(s) in background", count);
+    }
+
+    /**
+     * Take prewarmed session.
+     *
+     * @return ready session, or null when all sessions are handed out, failed or prewarmer is closed
+     */
+    public synchronized WebDriver claim() {
+        try {
+            while (readySessions.isEmpty() && pendingSessions > 0 && !closed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return closed ? null : readySessions.pollFirst();
+    }
+
+    /**
+     * Quit sessions which were not claimed, sessions still being launched are quit when they are ready.
+     */
+    public void close() {
+        final List<WebDriver> toQuit;
+        synchronized (this) {
+            closed = true;
+            toQuit = new ArrayList<>(readySessions);
+            readySessions.clear();
+            notifyAll();
+        }
+        executor.shutdown();
+        if (!toQuit.isEmpty()) {
+            Log.info("SPW: Quitting {} unclaimed prewarmed session(s)", toQuit.size());
+        }
+        toQuit.forEach(SessionPrewarmer::quitQuietly);
+    }
+
+    private void launch() {
+        WebDriver driver = null;
+        try {
+            driver = sessionSupplier.get();
+        } catch (RuntimeException e) {
+            Log.warn("SPW: Prewarmed session could not be launched, it will be created on demand: {}", e.getMessage());
+        }
+        synchronized (this) {
+            pendingSessions--;
+            if (driver != null && !closed) {
+                readySessions.addLast(driver);
+                driver = null;
+            }
+            notifyAll();
+        }
+        if (driver != null) {
+            quitQuietly(driver);
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            Log.warn("SPW: Problem during WebDriver session quit: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package factory.driver;
+
+import exceptions.WebDriverFactoryException;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import utils.Log;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Run-wide cache of authenticated browser state (cookies and localStorage) keyed by user, password and site.
+ * State is captured after one successful real login and restored into other sessions, failed login is not cached
+ * and login with other password never gets cached state. Restored state is checked with the site by one
+ * page request, state which is expired or which the site rejects is invalidated and replaced by a new real login.
+ * Only one thread logs in as a given user at a time, the others reuse its state.
+ */
+public final class SessionStateCache {
+
+    // Small same-origin document, cookies and localStorage can be set only for the opened origin
+    private static final String RESTORE_PATH = "/robots.txt";
+    private static final String CAPTURE_STORAGE_SCRIPT =
+            "var state = {};" +
+            "for (var i = 0; i < window.localStorage.length; i++) {" +
+            "  var key = window.localStorage.key(i);" +
+            "  state[key] = window.localStorage.getItem(key);" +
+            "}" +
+            "return state;";
+    private static final String RESTORE_STORAGE_SCRIPT =
+            "window.localStorage.clear();" +
+            "var state = arguments[0];" +
+            "for (var key in state) { window.localStorage.setItem(key, state[key]); }";
+
+    private static final Map<String, SessionState> states = new ConcurrentHashMap<>();
+    private static final Map<String, Object> loginLocks = new ConcurrentHashMap<>();
+
+    private SessionStateCache() {
+        // Empty constructor
+    }
+
+    /**
+     * Make provided browser logged in as provided user.
+     * Cached state of the same user and password is restored when it is valid, otherwise real login
+     * is performed and its state is cached when login succeeded.
+     *
+     * @param webDriver   WebDriver object
+     * @param strUser     user name, part of the cache key
+     * @param strPassword user password, its hash is part of the cache key
+     * @param strSiteUrl  site URL, its origin is part of the cache key
+     * @param logIn       real login through UI, returns whether login succeeded
+     * @param isLoggedIn  checks with the site whether browser is logged in, called once after state is restored
+     */
+    public static void restoreOrLogIn(WebDriver webDriver, String strUser, String strPassword, String strSiteUrl,
+                                      Predicate<WebDriver> logIn, Predicate<WebDriver> isLoggedIn) {
+        final String strOrigin = origin(strSiteUrl);
+        final String strName = strUser + "@" + strOrigin;
+        final String key = userKey(strUser, strOrigin) + hash(strPassword);
+
+        SessionState rejectedState = null;
+        SessionState state = states.get(key);
+        if (state != null) {
+            if (restore(webDriver, strOrigin, state, isLoggedIn)) {
+                Log.info("SSC: Session state of {} is restored", strName);
+                return;
+            }
+            rejectedState = state;
+            states.remove(key, state);
+            Log.warn("SSC: Restored session state of {} is rejected and invalidated", strName);
+        }
+
+        synchronized (loginLocks.computeIfAbsent(key, lockKey -> new Object())) {
+            // Another thread could log in while this one was waiting
+            state = states.get(key);
+            if (state != null && state != rejectedState && restore(webDriver, strOrigin, state, isLoggedIn)) {
+                Log.info("SSC: Session state of {} is restored", strName);
+                return;
+            }
+            if (logIn.test(webDriver)) {
+                states.put(key, capture(webDriver));
+                Log.info("SSC: Session state of {} is captured after login", strName);
+            } else {
+                Log.info("SSC: Login of {} failed, session state is not cached", strName);
+            }
+        }
+    }
+
+    /**
+     * Drop cached state of provided user, e.g. after password change or logout.
+     *
+     * @param strUser    user name
+     * @param strSiteUrl site URL
+     */
+    public static void invalidate(String strUser, String strSiteUrl) {
+        final String strUserKey = userKey(strUser, origin(strSiteUrl));
+        states.keySet().removeIf(key -> key.startsWith(strUserKey));
+    }
+
+    /**
+     * Drop all cached states.
+     */
+    public static void invalidateAll() {
+        states.clear();
+    }
+
+    private static SessionState capture(WebDriver webDriver) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> storage = (Map<String, Object>) ((JavascriptExecutor) webDriver)
+                .executeScript(CAPTURE_STORAGE_SCRIPT);
+        return new SessionState(webDriver.manage().getCookies(), storage);
+    }
+
+    private static boolean restore(WebDriver webDriver, String strOrigin, SessionState state,
+                                   Predicate<WebDriver> isLoggedIn) {
+        if (state.isExpired()) {
+            return false;
+        }
+        // Cookies and localStorage can be set only for the opened origin
+        final String strCurrentUrl = webDriver.getCurrentUrl();
+        if (strCurrentUrl == null || !strCurrentUrl.startsWith(strOrigin + "/")) {
+            webDriver.get(strOrigin + RESTORE_PATH);
+        }
+        webDriver.manage().deleteAllCookies();
+        for (Cookie cookie : state.cookies) {
+            webDriver.manage().addCookie(cookie);
+        }
+        ((JavascriptExecutor) webDriver).executeScript(RESTORE_STORAGE_SCRIPT, state.localStorage);
+        // Site could end the session on its side, e.g. by timeout or by logout in other session
+        return isLoggedIn.test(webDriver);
+    }
+
+    /**
+     * @return "user@origin#", prefix of cache keys of all passwords of the user
+     */
+    private static String userKey(String strUser, String strOrigin) {
+        return strUser + "@" + strOrigin + "#";
+    }
+
+    private static String hash(String strPassword) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(strPassword).getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder();
+            for (byte value : digest) {
+                hex.append(String.format("%02x", value));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static String origin(String strSiteUrl) {
+        try {
+            URL url = new URL(strSiteUrl);
+            return url.getProtocol() + "://" + url.getAuthority();
+        } catch (MalformedURLException e) {
+            throw new WebDriverFactoryException("Site URL " + strSiteUrl + " is incorrect");
+        }
+    }
+
+    private static class SessionState {
+        private final Set<Cookie> cookies;
+        private final Map<String, Object> localStorage;
+
+        private SessionState(Set<Cookie> cookies, Map<String, Object> localStorage) {
+            this.cookies = Collections.unmodifiableSet(new HashSet<>(cookies));
+            this.localStorage = localStorage == null
+                    ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(localStorage));
+        }
+
+        private boolean isExpired() {
+            final Date now = new Date();
+            return cookies.stream().anyMatch(cookie -> cookie.getExpiry() != null && cookie.getExpiry().before(now));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package factory.driver;
 
 import exceptions.WebDriverFactoryException;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
@@ -12,12 +15,24 @@ import org.openqa.selenium.ie.InternetExplorerDriver;
 import org.openqa.selenium.ie.InternetExplorerOptions;
 import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import utils.Log;
 import utils.Configuration;
 
+import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class WebDriverFactory {
 
@@ -25,7 +40,212 @@ public class WebDriverFactory {
     private static final String FIREFOX_NAME = "firefox";
     private static final String EDGE_NAME = "edge";
     private static final String IE_NAME = "internet explorer";
+    private static final String LEGACY_DRIVERS_DIRECTORY = "src/test/resources/drivers";
+    // Discard port, nothing listens on it so blocked requests are refused at once
+    private static final String BLOCKING_PROXY = "127.0.0.1:9";
     private static final Configuration configuration = Configuration.instance();
+    private static volatile WebDriverPool webDriverPool;
+    private static volatile SessionPrewarmer sessionPrewarmer;
+    private static volatile PooledHttpClientFactory remoteHttpClientFactory;
+    private static volatile GridAdmissionControl gridAdmissionControl;
+    private static final ExecutorService recycler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "webdriver-recycler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Lease web driver for test class.
+     * In case of "driver.pool.enabled" property is true session is taken from the suite-wide pool,
+     * otherwise new session is created base on configuration.
+     *
+     * @return WebDriver object which should be given back with {@link #releaseWebDriver(WebDriver)}
+     */
+    public static WebDriver acquireWebDriver() {
+        if (configuration.getDriverPoolEnabled()) {
+            return getWebDriverPool().lease();
+        }
+        return newSession();
+    }
+
+    /**
+     * @return maximum number of sessions one owner should lease at once: pool max size
+     * in case of "driver.pool.enabled" property is true, otherwise not limited
+     */
+    public static int getSessionLimit() {
+        return configuration.getDriverPoolEnabled() ? configuration.getDriverPoolMaxSize() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Give back web driver obtained by {@link #acquireWebDriver()}.
+     * Pooled session is reset and returned to the pool, not pooled session is quit.
+     * Pooled session which is broken or reached "session.max.age.seconds", "session.max.commands"
+     * or "session.max.failures" threshold is recycled instead, replacement is launched in background.
+     *
+     * @param driver WebDriver object to release
+     */
+    public static void releaseWebDriver(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (configuration.getDriverPoolEnabled()) {
+            final String strReason = getRecycleReason(driver, false);
+            if (strReason == null) {
+                getWebDriverPool().release(driver);
+            } else {
+                Log.warn("WDF: Recycling WebDriver session after {}", strReason);
+                discard(driver);
+                getSessionPrewarmer().prewarm(1);
+            }
+        } else {
+            SessionHealth.forget(driver);
+            driver.quit();
+        }
+    }
+
+    /**
+     * Launch "session.prewarm.count" sessions concurrently in background, they are handed out
+     * by {@link #acquireWebDriver()} before new sessions are created.
+     * With driver pool count is limited by pool max size. Does nothing when count is 0 or sessions are launched already.
+     */
+    public static synchronized void prewarmSessions() {
+        int count = configuration.getSessionPrewarmCount();
+        if (configuration.getDriverPoolEnabled()) {
+            count = Math.min(count, configuration.getDriverPoolMaxSize());
+        }
+        if (count > 0 && sessionPrewarmer == null) {
+            getSessionPrewarmer().prewarm(count);
+        }
+    }
+
+    /**
+     * Check session between tests and recycle it when it had infrastructure error (browser unreachable,
+     * session not found) or does not answer cheap liveness probe. Thresholds are not checked here,
+     * working session keeps browser state the test class set up, it is recycled by {@link #releaseWebDriver(WebDriver)}.
+     * Recycled session is quit in background and replacement is launched in background,
+     * it is handed out by the next {@link #acquireWebDriver()}.
+     * Does nothing unless "session.health.enabled" property is true.
+     *
+     * @param driver WebDriver object obtained by {@link #acquireWebDriver()}
+     * @return true when session was recycled and should not be used any more
+     */
+    public static boolean recycleIfUnhealthy(WebDriver driver) {
+        final String strReason = getRecycleReason(driver, true);
+        if (strReason == null) {
+            return false;
+        }
+        Log.warn("WDF: Recycling WebDriver session after {}", strReason);
+        discard(driver);
+        getSessionPrewarmer().prewarm(1);
+        return true;
+    }
+
+    /**
+     * Quit prewarmed sessions which were not handed out.
+     */
+    public static synchronized void discardPrewarmedSessions() {
+        if (sessionPrewarmer != null) {
+            sessionPrewarmer.close();
+            sessionPrewarmer = null;
+        }
+    }
+
+    /**
+     * Write WebDriver command latency summary and trace-event timeline into "driver.metrics.dir".
+     * Does nothing unless "driver.metrics.enabled" property is true.
+     */
+    public static void exportCommandMetrics() {
+        if (configuration.getDriverMetricsEnabled()) {
+            CommandMetrics.export(configuration.getDriverMetricsDirectory());
+        }
+    }
+
+    private static synchronized SessionPrewarmer getSessionPrewarmer() {
+        if (sessionPrewarmer == null) {
+            sessionPrewarmer = new SessionPrewarmer(WebDriverFactory::createWebDriverWithRetry);
+        }
+        return sessionPrewarmer;
+    }
+
+    /**
+     * @param between whether session is checked between tests of its owner: only broken session is recycled
+     *                and liveness of the session is checked with a command, otherwise thresholds are checked too
+     * @return reason why session should be recycled or null when it is healthy or not tracked
+     */
+    private static String getRecycleReason(WebDriver driver, boolean between) {
+        final SessionHealth health = SessionHealth.of(driver);
+        if (health == null) {
+            return null;
+        }
+        if (!between) {
+            return health.getRecycleReason(configuration.getSessionMaxAge(),
+                    configuration.getSessionMaxCommands(), configuration.getSessionMaxFailures());
+        }
+        String strReason = health.getBrokenReason();
+        if (strReason == null) {
+            try {
+                // Single cheap round trip to the browser
+                driver.getWindowHandle();
+            } catch (WebDriverException e) {
+                strReason = "failed liveness probe (" + e.getClass().getSimpleName() + ")";
+            }
+        }
+        return strReason;
+    }
+
+    /**
+     * Take session out of use and quit it without blocking the caller, broken browser can take long to quit.
+     */
+    private static void discard(WebDriver driver) {
+        SessionHealth.forget(driver);
+        if (configuration.getDriverPoolEnabled()) {
+            getWebDriverPool().discard(driver);
+        } else {
+            recycler.execute(() -> {
+                try {
+                    driver.quit();
+                } catch (Exception e) {
+                    Log.warn("WDF: Problem during recycled WebDriver session quit: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private static WebDriverPool getWebDriverPool() {
+        if (webDriverPool == null) {
+            synchronized (WebDriverFactory.class) {
+                if (webDriverPool == null) {
+                    webDriverPool = new WebDriverPool(WebDriverFactory::newSession,
+                            configuration.getDriverPoolMinSize(),
+                            configuration.getDriverPoolMaxSize(),
+                            configuration.getDriverPoolIdleTimeout(),
+                            configuration.getDriverPoolLeaseTimeout());
+                }
+            }
+        }
+        return webDriverPool;
+    }
+
+    /**
+     * Take prewarmed session, otherwise create new one.
+     */
+    private static WebDriver newSession() {
+        final SessionPrewarmer prewarmer = sessionPrewarmer;
+        final WebDriver prewarmed = prewarmer == null ? null : prewarmer.claim();
+        return prewarmed != null ? prewarmed : createWebDriverWithRetry();
+    }
+
+    /**
+     * Create web driver base on configuration, retrying failed creation up to "session.create.attempts" times
+     * with backoff from "session.create.backoff.millis" to "session.create.max.backoff.millis".
+     *
+     * @return created WebDriver object
+     */
+    private static WebDriver createWebDriverWithRetry() {
+        return new SessionCreationRetry(configuration.getSessionCreateAttempts(),
+                configuration.getSessionCreateBackoff(), configuration.getSessionCreateMaxBackoff())
+                .create(WebDriverFactory::createWebDriver);
+    }
 
     /**
      * Create Firefox web driver base on configuration and Edge options.
@@ -115,7 +335,8 @@ public class WebDriverFactory {
 
     /**
      * Create web driver base on configuration and provided options.
-     * Works only for windows environments.
+     * In case of "headless" property is true Chrome and Firefox are started headless
+     * with fixed viewport of "window.size" instead of maximized window.
      *
      * @param chromeOptions Chrome driver options
      * @param firefoxOptions Firefox driver options
@@ -133,24 +354,42 @@ public class WebDriverFactory {
         if (configuration.getIsLocal()) {
             String usedBrowser = configuration.getBrowser();
             if (IE_NAME.equals(usedBrowser)) {
-                System.setProperty("webdriver.ie.driver", "src/test/resources/drivers/IEDriverServer32.exe");
+                resolveDriverBinary("webdriver.ie.driver", "IEDriverServer32", "IEDriverServer");
                 if (internetExplorerOptions == null) {
                     driver = new InternetExplorerDriver();
                 } else {
                     driver = new InternetExplorerDriver(internetExplorerOptions);
                 }
             } else if (EDGE_NAME.equals(usedBrowser)) {
-                System.setProperty("webdriver.edge.driver", "src/test/resources/drivers/MicrosoftWebDriver.exe");
+                resolveDriverBinary("webdriver.edge.driver", "MicrosoftWebDriver", "msedgedriver");
                 driver = new EdgeDriver();
             } else if (CHROME_NAME.equals(usedBrowser)) {
-                System.setProperty("webdriver.chrome.driver", "src/test/resources/drivers/chromedriver.exe");
+                resolveDriverBinary("webdriver.chrome.driver", "chromedriver");
+                if (configuration.getHeadless()) {
+                    chromeOptions = chromeOptions == null ? new ChromeOptions() : chromeOptions;
+                    chromeOptions.addArguments("--headless", "--disable-gpu", "--no-sandbox",
+                            "--disable-dev-shm-usage", "--window-size=" + getWindowSize().getWidth()
+                                    + "," + getWindowSize().getHeight());
+                }
+                if (hasPageLoadOptions()) {
+                    chromeOptions = applyPageLoadOptions(chromeOptions == null ? new ChromeOptions() : chromeOptions);
+                }
                 if (chromeOptions == null) {
                     driver = new ChromeDriver();
                 } else {
                     driver = new ChromeDriver(chromeOptions);
                 }
             } else if (FIREFOX_NAME.equals(usedBrowser)) {
-                System.setProperty("webdriver.gecko.driver", "src/test/resources/drivers/geckodriver.exe");
+                resolveDriverBinary("webdriver.gecko.driver", "geckodriver");
+                if (configuration.getHeadless()) {
+                    firefoxOptions = firefoxOptions == null ? new FirefoxOptions() : firefoxOptions;
+                    firefoxOptions.setHeadless(true);
+                    firefoxOptions.addArguments("--width=" + getWindowSize().getWidth(),
+                            "--height=" + getWindowSize().getHeight());
+                }
+                if (hasPageLoadOptions()) {
+                    firefoxOptions = applyPageLoadOptions(firefoxOptions == null ? new FirefoxOptions() : firefoxOptions);
+                }
                 if (firefoxOptions == null) {
                     driver = new FirefoxDriver();
                 } else {
@@ -160,7 +399,12 @@ public class WebDriverFactory {
                 Log.error("WDF: Browser name in configuration you specified is not supported");
                 throw new WebDriverFactoryException("Browser name in configuration you specified is not supported.");
             }
-            driver.manage().window().maximize();
+            if (configuration.getHeadless()) {
+                // Headless browser has no screen to maximize to, use fixed viewport
+                driver.manage().window().setSize(getWindowSize());
+            } else {
+                driver.manage().window().maximize();
+            }
         } else {
             if (configuration.getUseSauceLabs()) {
                 final String sauceUrl = String.format(configuration.getSauceLabsURL(),
@@ -172,7 +416,8 @@ public class WebDriverFactory {
                     desiredCapabilities.setCapability("idleTimeout", configuration.getIdleTimeout());
                     desiredCapabilities.setCapability("build", configuration.getBuild());
                     desiredCapabilities.setCapability("screenResolution", "1920x1080");
-                    driver = new RemoteWebDriver(new URL(sauceUrl), desiredCapabilities);
+                    applyPageLoadOptions(desiredCapabilities);
+                    driver = createRemoteWebDriver(new URL(sauceUrl), desiredCapabilities);
                 } catch (Exception ex) {
                     Log.error("WDF: Problem connecting to SauceLabs");
                     throw new RuntimeException(ex);
@@ -184,7 +429,16 @@ public class WebDriverFactory {
                     desiredCapabilities.setCapability(CapabilityType.PLATFORM_NAME, configuration.getPlatform());
                     desiredCapabilities.setCapability("idleTimeout", configuration.getIdleTimeout());
                     desiredCapabilities.setCapability("screenResolution", "1920x1080");
-                    driver = new RemoteWebDriver(new URL(configuration.getGridURL()), desiredCapabilities);
+                    applyPageLoadOptions(desiredCapabilities);
+                    final URL gridUrl = new URL(configuration.getGridURL());
+                    if (configuration.getGridAdmissionEnabled()) {
+                        driver = getGridAdmissionControl(gridUrl)
+                                .admit(() -> createRemoteWebDriver(gridUrl, desiredCapabilities));
+                    } else {
+                        driver = createRemoteWebDriver(gridUrl, desiredCapabilities);
+                    }
+                } catch (WebDriverFactoryException ex) {
+                    throw ex;
                 } catch (Exception ex) {
                     Log.error("WDF: Problem connecting to Selenium Grid");
                     throw new RuntimeException(ex);
@@ -192,7 +446,197 @@ public class WebDriverFactory {
             }
         }
 
-        driver.manage().timeouts().implicitlyWait(configuration.getImplicitlyWait(), TimeUnit.SECONDS);
+        // With explicit wait policy absent elements are reported immediately, page objects wait explicitly
+        driver.manage().timeouts().implicitlyWait(configuration.isExplicitWaitPolicy()
+                ? 0 : configuration.getImplicitlyWait(), TimeUnit.SECONDS);
+        if (configuration.getSessionHealthEnabled()) {
+            final SessionHealth health = new SessionHealth();
+            final WebDriver instrumentedDriver = InstrumentedWebDriver.instrument(driver,
+                    configuration.getDriverMetricsEnabled(), health);
+            SessionHealth.track(instrumentedDriver, health);
+            return instrumentedDriver;
+        }
+        if (configuration.getDriverMetricsEnabled()) {
+            return InstrumentedWebDriver.instrument(driver);
+        }
         return driver;
     }
+
+    /**
+     * Create remote session. In case of "remote.executor.pooled" property is true commands are sent
+     * through {@link PooledHttpClientFactory} shared by all sessions.
+     *
+     * @param url                 Grid or SauceLabs URL
+     * @param desiredCapabilities remote session capabilities
+     * @return created RemoteWebDriver object
+     */
+    private static RemoteWebDriver createRemoteWebDriver(URL url, DesiredCapabilities desiredCapabilities) {
+        if (!configuration.getRemoteExecutorPooled()) {
+            return new RemoteWebDriver(url, desiredCapabilities);
+        }
+        return new RemoteWebDriver(new HttpCommandExecutor(Collections.emptyMap(), url, getRemoteHttpClientFactory()),
+                desiredCapabilities);
+    }
+
+    private static PooledHttpClientFactory getRemoteHttpClientFactory() {
+        if (remoteHttpClientFactory == null) {
+            synchronized (WebDriverFactory.class) {
+                if (remoteHttpClientFactory == null) {
+                    remoteHttpClientFactory = new PooledHttpClientFactory(
+                            configuration.getRemoteMaxIdleConnections(),
+                            configuration.getRemoteKeepAlive(),
+                            configuration.getRemoteConnectTimeout(),
+                            configuration.getRemoteReadTimeout(),
+                            configuration.getDriverMetricsEnabled() ? CommandMetrics::recordHttp : null);
+                }
+            }
+        }
+        return remoteHttpClientFactory;
+    }
+
+    private static GridAdmissionControl getGridAdmissionControl(URL gridUrl) {
+        if (gridAdmissionControl == null) {
+            synchronized (WebDriverFactory.class) {
+                if (gridAdmissionControl == null) {
+                    gridAdmissionControl = new GridAdmissionControl(gridUrl,
+                            configuration.getGridStatusPollInterval(),
+                            TimeUnit.SECONDS.toMillis(configuration.getGridAdmissionTimeout()));
+                }
+            }
+        }
+        return gridAdmissionControl;
+    }
+
+    private static boolean hasPageLoadOptions() {
+        return !configuration.isPageLoadStrategyNormal() || !getBlockedHosts().isEmpty();
+    }
+
+    /**
+     * Set "page.load.strategy" and block "blocked.hosts" by mapping them to not existing address,
+     * so requests to analytics and ad hosts fail immediately.
+     *
+     * @param chromeOptions Chrome driver options
+     * @return provided options
+     */
+    private static ChromeOptions applyPageLoadOptions(ChromeOptions chromeOptions) {
+        chromeOptions.setPageLoadStrategy(getPageLoadStrategy());
+        if (!getBlockedHosts().isEmpty()) {
+            chromeOptions.addArguments("--host-resolver-rules=" + getBlockedHosts().stream()
+                    .map(strHost -> "MAP " + strHost + " ~NOTFOUND")
+                    .collect(Collectors.joining(", ")));
+        }
+        return chromeOptions;
+    }
+
+    /**
+     * Set "page.load.strategy" and block "blocked.hosts" with proxy auto-config script
+     * which sends their requests to a closed local port.
+     *
+     * @param firefoxOptions Firefox driver options
+     * @return provided options
+     */
+    private static FirefoxOptions applyPageLoadOptions(FirefoxOptions firefoxOptions) {
+        firefoxOptions.setPageLoadStrategy(getPageLoadStrategy());
+        if (!getBlockedHosts().isEmpty()) {
+            final String strPacScript = "function FindProxyForURL(url, host) {"
+                    + getBlockedHosts().stream()
+                    .map(strHost -> "if (shExpMatch(host, '" + strHost + "')) return 'PROXY " + BLOCKING_PROXY + "';")
+                    .collect(Collectors.joining())
+                    + "return 'DIRECT';}";
+            firefoxOptions.addPreference("network.proxy.type", 2);
+            firefoxOptions.addPreference("network.proxy.autoconfig_url", "data:application/x-ns-proxy-autoconfig;base64,"
+                    + Base64.getEncoder().encodeToString(strPacScript.getBytes(StandardCharsets.UTF_8)));
+        }
+        return firefoxOptions;
+    }
+
+    /**
+     * Apply page load options to remote session capabilities.
+     * Hosts are blocked in Chrome and Firefox only.
+     *
+     * @param desiredCapabilities remote session capabilities
+     */
+    private static void applyPageLoadOptions(DesiredCapabilities desiredCapabilities) {
+        if (!hasPageLoadOptions()) {
+            return;
+        }
+        if (CHROME_NAME.equals(configuration.getBrowser())) {
+            desiredCapabilities.merge(applyPageLoadOptions(new ChromeOptions()));
+        } else if (FIREFOX_NAME.equals(configuration.getBrowser())) {
+            desiredCapabilities.merge(applyPageLoadOptions(new FirefoxOptions()));
+        } else {
+            desiredCapabilities.setCapability(CapabilityType.PAGE_LOAD_STRATEGY,
+                    getPageLoadStrategy().toString());
+        }
+    }
+
+    private static PageLoadStrategy getPageLoadStrategy() {
+        PageLoadStrategy pageLoadStrategy = PageLoadStrategy.fromString(configuration.getPageLoadStrategy().toLowerCase());
+        if (pageLoadStrategy == null) {
+            throw new WebDriverFactoryException("\"page.load.strategy\" should be normal, eager or none");
+        }
+        return pageLoadStrategy;
+    }
+
+    private static List<String> getBlockedHosts() {
+        if (configuration.getBlockedHosts() == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(configuration.getBlockedHosts().split(","))
+                .map(String::trim)
+                .filter(strHost -> !strHost.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolve driver binary and set it to provided system property.
+     * Binary is searched in "driver.directory" when it is configured, otherwise in
+     * legacy "src/test/resources/drivers" folder and in directories of PATH environment variable.
+     * Property which is already set (e.g. by -Dwebdriver.chrome.driver) is not changed.
+     *
+     * @param strPropertyName system property used by driver service
+     * @param strBinaryNames  binary names without extension, in order of preference
+     */
+    private static void resolveDriverBinary(String strPropertyName, String... strBinaryNames) {
+        if (System.getProperty(strPropertyName) != null) {
+            return;
+        }
+        final List<String> searchDirectories = new ArrayList<>();
+        if (configuration.getDriverDirectory() != null) {
+            searchDirectories.add(configuration.getDriverDirectory());
+        } else {
+            searchDirectories.add(LEGACY_DRIVERS_DIRECTORY);
+            searchDirectories.addAll(Arrays.asList(Optional
+                    .ofNullable(System.getenv("PATH"))
+                    .orElse("")
+                    .split(File.pathSeparator)));
+        }
+        final boolean isWindows = System.getProperty("os.name").toLowerCase().startsWith("windows");
+        for (String directory : searchDirectories) {
+            for (String binaryName : strBinaryNames) {
+                File binary = new File(directory, isWindows ? binaryName + ".exe" : binaryName);
+                if (binary.isFile() && binary.canExecute()) {
+                    Log.info("WDF: Using {} as {}", binary.getAbsolutePath(), strPropertyName);
+                    System.setProperty(strPropertyName, binary.getAbsolutePath());
+                    return;
+                }
+            }
+        }
+        Log.error("WDF: Driver binary {} was not found in {}", Arrays.toString(strBinaryNames), searchDirectories);
+        throw new WebDriverFactoryException("Driver binary " + Arrays.toString(strBinaryNames)
+                + " was not found, set \"driver.directory\" or add it to PATH");
+    }
+
+    /**
+     * Parse "window.size" property in format WIDTHxHEIGHT.
+     *
+     * @return window size
+     */
+    private static Dimension getWindowSize() {
+        String[] size = configuration.getWindowSize().toLowerCase().split("x");
+        if (size.length != 2) {
+            throw new WebDriverFactoryException("\"window.size\" should be in WIDTHxHEIGHT format");
+        }
+        return new Dimension(Integer.parseInt(size[0].trim()), Integer.parseInt(size[1].trim()));
+    }
 }
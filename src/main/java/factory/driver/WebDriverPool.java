@@ -0,0 +1,298 @@
+package factory.driver;
+
+import exceptions.WebDriverFactoryException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Pool of WebDriver sessions leased to test classes.
+ * Sessions are reset on return (cookies, storage, extra windows, about:blank)
+ * and quit when they stay idle longer than configured idle timeout.
+ */
+public class WebDriverPool {
+
+    private static final String BLANK_PAGE = "about:blank";
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "try { window.localStorage.clear(); } catch (e) {}" +
+            "try { window.sessionStorage.clear(); } catch (e) {}";
+
+    private final Supplier<WebDriver> sessionSupplier;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long leaseTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition sessionAvailable = lock.newCondition();
+    private final LinkedList<IdleSession> idleSessions = new LinkedList<>();
+    private final Set<WebDriver> leasedSessions = ConcurrentHashMap.newKeySet();
+    // Returned sessions being reset, they still count towards pool size, guarded by lock
+    private final Set<WebDriver> resettingSessions = new HashSet<>();
+    private int pendingCreations;
+    private boolean closed;
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "webdriver-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create pool.
+     *
+     * @param sessionSupplier     creates new WebDriver sessions
+     * @param minSize             number of idle sessions kept alive by eviction
+     * @param maxSize             maximum number of sessions (idle and leased)
+     * @param idleTimeoutSeconds  idle time after which session is quit
+     * @param leaseTimeoutSeconds maximum time to wait for a free session
+     */
+    public WebDriverPool(Supplier<WebDriver> sessionSupplier, int minSize, int maxSize,
+                         long idleTimeoutSeconds, long leaseTimeoutSeconds) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new WebDriverFactoryException("Pool size should satisfy 0 <= min <= max and max >= 1");
+        }
+        this.sessionSupplier = sessionSupplier;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        this.leaseTimeoutMillis = TimeUnit.SECONDS.toMillis(leaseTimeoutSeconds);
+
+        long evictionPeriod = Math.max(1, idleTimeoutSeconds / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleSessions, evictionPeriod, evictionPeriod, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "webdriver-pool-shutdown"));
+    }
+
+    /**
+     * Lease session from pool. Reuses idle session when present,
+     * creates new one when pool is below maximum size,
+     * otherwise waits till some session is returned.
+     *
+     * @return leased WebDriver session
+     */
+    public WebDriver lease() {
+        long deadline = System.currentTimeMillis() + leaseTimeoutMillis;
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new WebDriverFactoryException("WebDriver pool is closed");
+                }
+                IdleSession idleSession = idleSessions.pollFirst();
+                if (idleSession != null) {
+                    leasedSessions.add(idleSession.driver);
+                    return idleSession.driver;
+                }
+                if (totalSize() < maxSize) {
+                    pendingCreations++;
+                    break;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new WebDriverFactoryException("No WebDriver session became available in "
+                            + leaseTimeoutMillis + " ms, pool max size is " + maxSize);
+                }
+                sessionAvailable.await(remaining, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverFactoryException("Interrupted while waiting for WebDriver session");
+        } finally {
+            lock.unlock();
+        }
+
+        WebDriver driver = null;
+        try {
+            driver = sessionSupplier.get();
+            return driver;
+        } finally {
+            lock.lock();
+            try {
+                pendingCreations--;
+                if (driver != null) {
+                    leasedSessions.add(driver);
+                } else {
+                    sessionAvailable.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Return session to pool. Session state is reset before it becomes available again,
+     * session which can not be reset is quit. Session counts towards pool size while it is reset,
+     * so no new session takes its place. Session which was not leased from this pool is quit,
+     * so it does not leak.
+     *
+     * @param driver WebDriver session previously leased from this pool
+     */
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        final boolean leased;
+        lock.lock();
+        try {
+            leased = leasedSessions.remove(driver);
+            if (leased) {
+                resettingSessions.add(driver);
+            } else if (resettingSessions.contains(driver) || isIdle(driver)) {
+                Log.warn("WDP: WebDriver session is released twice, it is returned to the pool already");
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!leased) {
+            Log.warn("WDP: WebDriver session was not leased from the pool and will be quit");
+            quitQuietly(driver);
+            return;
+        }
+        boolean reusable = !closed && reset(driver);
+        lock.lock();
+        try {
+            resettingSessions.remove(driver);
+            if (reusable && !closed) {
+                idleSessions.addFirst(new IdleSession(driver));
+                driver = null;
+            }
+            sessionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (driver != null) {
+            quitQuietly(driver);
+        }
+    }
+
+    /**
+     * Take leased session out of pool without reuse, e.g. when it is unhealthy.
+     * Session is quit in background and its place is free for a new session at once.
+     *
+     * @param driver WebDriver session previously leased from this pool
+     */
+    public void discard(WebDriver driver) {
+        if (driver == null || !leasedSessions.remove(driver)) {
+            return;
+        }
+        lock.lock();
+        try {
+            sessionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (closed) {
+            quitQuietly(driver);
+        } else {
+            evictor.execute(() -> quitQuietly(driver));
+        }
+    }
+
+    /**
+     * Quit all idle sessions and reject further leases.
+     * Leased sessions are quit when they are returned.
+     */
+    public void close() {
+        List<IdleSession> toQuit;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toQuit = new ArrayList<>(idleSessions);
+            idleSessions.clear();
+            sessionAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        toQuit.forEach(idleSession -> quitQuietly(idleSession.driver));
+        leasedSessions.forEach(this::quitQuietly);
+        leasedSessions.clear();
+    }
+
+    private boolean isIdle(WebDriver driver) {
+        return idleSessions.stream().anyMatch(idleSession -> idleSession.driver == driver);
+    }
+
+    private int totalSize() {
+        return idleSessions.size() + leasedSessions.size() + resettingSessions.size() + pendingCreations;
+    }
+
+    private void evictIdleSessions() {
+        List<WebDriver> toQuit = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            // Oldest idle sessions are at the tail, keep at least "minSize" sessions alive
+            Iterator<IdleSession> iterator = idleSessions.descendingIterator();
+            while (iterator.hasNext() && idleSessions.size() + leasedSessions.size() + resettingSessions.size() > minSize) {
+                IdleSession idleSession = iterator.next();
+                if (now - idleSession.idleSince < idleTimeoutMillis) {
+                    break;
+                }
+                iterator.remove();
+                toQuit.add(idleSession.driver);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!toQuit.isEmpty()) {
+            Log.info("WDP: Evicting {} idle WebDriver session(s)", toQuit.size());
+        }
+        toQuit.forEach(this::quitQuietly);
+    }
+
+    private boolean reset(WebDriver driver) {
+        try {
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            for (int index = 1; index < handles.size(); index++) {
+                driver.switchTo().window(handles.get(index));
+                driver.close();
+            }
+            driver.switchTo().window(handles.get(0));
+            driver.switchTo().defaultContent();
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            driver.get(BLANK_PAGE);
+            return true;
+        } catch (Exception e) {
+            Log.warn("WDP: WebDriver session could not be reset and will be quit: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            Log.warn("WDP: Problem during WebDriver session quit: {}", e.getMessage());
+        }
+    }
+
+    private static class IdleSession {
+        private final WebDriver driver;
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleSession(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
@@ -1,23 +1,90 @@
 package pages.authenticationPage;
 
+import factory.driver.SessionStateCache;
 import io.qameta.allure.Step;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import pages.basePage.BasePage;
+import utils.Configuration;
 
 public class AuthenticationPage extends BasePage {
 
+    private static final Configuration configuration = Configuration.instance();
+
     private String strPageTitle = "Login - My Store";
+    private String strPageURL = "?controller=authentication";
+    private String strMyAccountPageURL = "?controller=my-account";
 
     @FindBy(className = "page-heading")
     public WebElement authenticationPageTitle;
 
+    @FindBy(id = "email")
+    public WebElement emailInput;
+
+    @FindBy(id = "passwd")
+    public WebElement passwordInput;
+
+    @FindBy(id = "SubmitLogin")
+    public WebElement signInButton;
+
     public AuthenticationPage(WebDriver webDriver) {
         super(webDriver);
     }
 
+    /**
+     * Log in as provided user.
+     * In case of "session.cache.enabled" property is true cookies and localStorage of the first successful login
+     * with the same password are restored instead of filling login form again, restored login is checked
+     * on "My account" page.
+     *
+     * @param strEmail    user email
+     * @param strPassword user password
+     */
+    @Step
+    public void logIn(String strEmail, String strPassword) {
+        if (configuration.getSessionCacheEnabled()) {
+            SessionStateCache.restoreOrLogIn(webDriver, strEmail, strPassword,
+                    System.getProperty("application.site.url"),
+                    driver -> {
+                        logInWithForm(strEmail, strPassword);
+                        // Successful login lands on "My account" page with logout link
+                        return isElementPresent(By.className("logout"));
+                    },
+                    driver -> isLoggedIn());
+        } else {
+            logInWithForm(strEmail, strPassword);
+        }
+    }
 
+    /**
+     * Log in by filling login form.
+     *
+     * @param strEmail    user email
+     * @param strPassword user password
+     */
+    @Step
+    public void logInWithForm(String strEmail, String strPassword) {
+        open(strPageURL);
+        isLoaded();
+        fillText(emailInput, strEmail);
+        fillText(passwordInput, strPassword);
+        clickOnElement(signInButton);
+        waitForPageReady();
+    }
+
+    /**
+     * Open "My account" page and check whether it is shown to logged in user.
+     *
+     * @return true when user is logged in
+     */
+    @Step
+    public boolean isLoggedIn() {
+        open(strMyAccountPageURL);
+        waitForPageReady();
+        return isElementPresent(By.className("logout"));
+    }
 
     @Step
     @Override
@@ -29,10 +96,6 @@ public class AuthenticationPage extends BasePage {
     public void isLoaded() throws Error {
         checkPageTitle(strPageTitle);
         checkIfElementIsVisible(authenticationPageTitle);
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        checkPageReady();
     }
 }
@@ -9,22 +9,109 @@ import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.*;
 import org.openqa.selenium.support.ui.SystemClock;
 import org.testng.Assert;
+import utils.Configuration;
 
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public abstract class BasePage extends SlowLoadableComponent<BasePage> {
 
+    private static final Configuration configuration = Configuration.instance();
+    private static final long DOM_QUIET_AFTER_ACTION_MILLIS = 100;
+    // Alert is accepted on best effort basis, missing alert should not cost full explicit wait
+    private static final long ALERT_TIMEOUT_SECONDS = 2;
+    private static final String MARK_DOCUMENT_LEFT_SCRIPT = "window.__documentLeft = true;";
+    private static final String NEW_DOCUMENT_SCRIPT =
+            "return !window.__documentLeft && document.readyState !== 'loading';";
+
+    // Installs (once per document) XHR/fetch counter and DOM mutation timestamp, returns current readiness state
+    private static final String READINESS_SCRIPT =
+            "var r = window.__pageReadiness;" +
+            "if (!r) {" +
+            "  r = window.__pageReadiness = {pending: 0, lastMutation: Date.now()};" +
+            "  var send = XMLHttpRequest.prototype.send;" +
+            "  XMLHttpRequest.prototype.send = function () {" +
+            "    r.pending++;" +
+            "    this.addEventListener('loadend', function () { r.pending--; });" +
+            "    return send.apply(this, arguments);" +
+            "  };" +
+            "  if (window.fetch) {" +
+            "    var fetch = window.fetch;" +
+            "    window.fetch = function () {" +
+            "      r.pending++;" +
+            "      return fetch.apply(this, arguments).then(" +
+            "        function (response) { r.pending--; return response; }," +
+            "        function (error) { r.pending--; throw error; });" +
+            "    };" +
+            "  }" +
+            "  if (window.MutationObserver && document.documentElement) {" +
+            "    new MutationObserver(function () { r.lastMutation = Date.now(); })" +
+            "      .observe(document.documentElement, {childList: true, subtree: true, characterData: true});" +
+            "  }" +
+            "}" +
+            "var jQueryActive = window.jQuery && window.jQuery.active ? window.jQuery.active : 0;" +
+            "return [document.readyState, r.pending + jQueryActive, Date.now() - r.lastMutation];";
+
+    // Same visibility rule is used by all browser-side scripts
+    private static final String IS_DISPLAYED_FUNCTION =
+            "function isDisplayed(e) {" +
+            "  var rect = e.getBoundingClientRect(), style = window.getComputedStyle(e);" +
+            "  return style.display !== 'none' && style.visibility !== 'hidden'" +
+            "    && (rect.width > 0 && rect.height > 0 || e.tagName === 'OPTION');" +
+            "}" +
+            // Whitespace is normalized as WebElement.getText() does: no-break spaces become spaces,
+            // runs of spaces collapse, lines are trimmed and empty lines are dropped
+            "function textOf(e) {" +
+            "  var text = (e.innerText !== undefined ? e.innerText : e.textContent) || '';" +
+            "  return text.replace(/\\u00a0/g, ' ').replace(/[^\\S\\n]+/g, ' ')" +
+            "    .replace(/ *\\n */g, '\\n').replace(/\\n+/g, '\\n').trim();" +
+            "}";
+
+    // Reads tag, rendered text, visibility, requested attributes and bounding box of every element
+    private static final String SNAPSHOT_SCRIPT = IS_DISPLAYED_FUNCTION +
+            "var elements = arguments[0], names = arguments[1], result = [];" +
+            "for (var i = 0; i < elements.length; i++) {" +
+            "  var e = elements[i], rect = e.getBoundingClientRect();" +
+            "  var attributes = {};" +
+            "  for (var j = 0; j < names.length; j++) { attributes[names[j]] = e.getAttribute(names[j]); }" +
+            "  result.push({tagName: e.tagName.toLowerCase(), text: textOf(e), displayed: isDisplayed(e)," +
+            "    attributes: attributes, x: rect.left, y: rect.top, width: rect.width, height: rect.height});" +
+            "}" +
+            "return result;";
+
+    // Returns last node matching XPath (arguments[0]) within context node (arguments[1] or document)
+    private static final String LAST_BY_XPATH_SCRIPT =
+            "var nodes = document.evaluate(arguments[0], arguments[1] || document, null," +
+            "  XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+            "return nodes.snapshotLength > 0 ? nodes.snapshotItem(nodes.snapshotLength - 1) : null;";
+
+    // Returns first displayed element of provided list
+    private static final String FIRST_DISPLAYED_SCRIPT = IS_DISPLAYED_FUNCTION +
+            "var elements = arguments[0];" +
+            "for (var i = 0; i < elements.length; i++) { if (isDisplayed(elements[i])) { return elements[i]; } }" +
+            "return null;";
+
+    // Returns first element matching CSS selector (arguments[1]) under scope (arguments[0]) with exact text
+    private static final String FIRST_BY_TEXT_SCRIPT = IS_DISPLAYED_FUNCTION +
+            "var candidates = (arguments[0] || document).querySelectorAll(arguments[1]);" +
+            "for (var i = 0; i < candidates.length; i++) {" +
+            "  if (textOf(candidates[i]) === arguments[2]) { return candidates[i]; }" +
+            "}" +
+            "return null;";
+
     protected WebDriver webDriver;
-    protected WebDriverWait webDriverWait;
+    protected PageWait pageWait;
     private int maxDelayTime;
 
 
     protected BasePage(WebDriver webDriver) {
         super(new SystemClock(), 10);
         this.webDriver = webDriver;
-        webDriverWait = new WebDriverWait(webDriver, 1);
+        pageWait = new PageWait(webDriver, configuration.getExplicitWaitTime(),
+                configuration.getWaitPollInitial(), configuration.getWaitPollMax());
     }
 
     /**
@@ -42,6 +129,9 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      * Or navigates by absolute URL when second parameter is false.
      * In case of "basic.auth.enabled" property is true,
      * URL will be modified to use basic authentication.
+     * With "none" page load strategy navigation returns at once, so it waits till new document is parsed,
+     * previous document is never taken for the opened one. Navigation to a fragment of the current document
+     * keeps the document, so it is not waited for.
      *
      * @param strPageURL  page URL
      * @param bUseBaseURL use base URL
@@ -49,13 +139,35 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
 
     @Step
     protected void open(String strPageURL, boolean bUseBaseURL) {
-        if (bUseBaseURL) {
-            webDriver.get(System.getProperty("application.site.url") + strPageURL);
-        } else {
-            webDriver.get(strPageURL);
+        final String strTargetURL = bUseBaseURL ? System.getProperty("application.site.url") + strPageURL : strPageURL;
+        final boolean bNoPageLoadWait = Configuration.PAGE_LOAD_STRATEGY_NONE.equalsIgnoreCase(configuration.getPageLoadStrategy())
+                && !isFragmentNavigation(webDriver.getCurrentUrl(), strTargetURL);
+        if (bNoPageLoadWait) {
+            ((JavascriptExecutor) webDriver).executeScript(MARK_DOCUMENT_LEFT_SCRIPT);
+        }
+        webDriver.get(strTargetURL);
+        if (bNoPageLoadWait) {
+            pageWait.until(driver -> {
+                try {
+                    return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(NEW_DOCUMENT_SCRIPT));
+                } catch (WebDriverException e) {
+                    // Script may fail while documents are being switched
+                    return false;
+                }
+            });
         }
     }
 
+    /**
+     * Browser only scrolls to the fragment when target URL has one and differs from current URL
+     * in the fragment only, other navigations load a new document.
+     */
+    private static boolean isFragmentNavigation(String strCurrentURL, String strTargetURL) {
+        final int fragment = strTargetURL.indexOf('#');
+        return fragment >= 0 && strCurrentURL != null
+                && strTargetURL.substring(0, fragment).equals(strCurrentURL.split("#", 2)[0]);
+    }
+
     /**
      * Checks if current URL matches with provided one.
      * Provided URL is appended to "siteUrl" from configuration.
@@ -101,7 +213,87 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     protected void checkIfElementIsVisible(WebElement webElement) throws TimeoutException {
-        this.webDriverWait.until(ExpectedConditions.visibilityOf(webElement));
+        this.pageWait.until(ExpectedConditions.visibilityOf(webElement));
+    }
+
+    /**
+     * Readiness conditions of the page. Page objects override it to declare
+     * what "page is ready" means for them, default is loaded document without pending requests.
+     *
+     * @return readiness declaration
+     */
+    protected PageReadiness readiness() {
+        return documentLoaded().withNoPendingRequests();
+    }
+
+    /**
+     * Document state matching "page.load.strategy": complete document for "normal" strategy,
+     * parsed document for "eager" and "none", so page waits do not wait for images and third-party scripts
+     * browser was told not to wait for.
+     *
+     * @return readiness declaration
+     */
+    protected static PageReadiness documentLoaded() {
+        return configuration.isPageLoadStrategyNormal()
+                ? PageReadiness.documentComplete()
+                : PageReadiness.documentInteractive();
+    }
+
+    /**
+     * Waits till page satisfies its {@link #readiness()} declaration:
+     * document.readyState, pending XHR/fetch requests and DOM quiet period.
+     * Returns as soon as conditions are met.
+     */
+    @Step
+    public void waitForPageReady() {
+        waitForPageReady(readiness());
+    }
+
+    /**
+     * Waits till page satisfies provided readiness declaration.
+     *
+     * @param pageReadiness readiness declaration
+     */
+    @Step
+    public void waitForPageReady(PageReadiness pageReadiness) {
+        pageWait.until(new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return isPageReady(driver, pageReadiness);
+            }
+
+            @Override
+            public String toString() {
+                return "page to be ready: " + pageReadiness;
+            }
+        });
+    }
+
+    /**
+     * Check page satisfies its {@link #readiness()} declaration, meant for {@link #isLoaded()}.
+     * Timeout is reported as {@link Error}, so {@link SlowLoadableComponent} keeps retrying till its own timeout.
+     */
+    @Step
+    protected void checkPageReady() throws Error {
+        try {
+            waitForPageReady();
+        } catch (TimeoutException e) {
+            throw new AssertionError("Page is not ready: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isPageReady(WebDriver driver, PageReadiness pageReadiness) {
+        List<?> state = (List<?>) ((JavascriptExecutor) driver).executeScript(READINESS_SCRIPT);
+        String readyState = String.valueOf(state.get(0));
+        long pendingRequests = ((Number) state.get(1)).longValue();
+        long quietMillis = ((Number) state.get(2)).longValue();
+
+        boolean readyStateReached = PageReadiness.READY_STATE_COMPLETE.equals(readyState)
+                || (PageReadiness.READY_STATE_INTERACTIVE.equals(readyState)
+                && PageReadiness.READY_STATE_INTERACTIVE.equals(pageReadiness.getReadyState()));
+        return readyStateReached
+                && (!pageReadiness.isNoPendingRequests() || pendingRequests == 0)
+                && quietMillis >= pageReadiness.getDomQuietMillis();
     }
 
     /**
@@ -284,7 +476,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBePresent(WebElement webElement, long seconds) {
-        new WebDriverWait(webDriver, seconds).until(ExpectedConditions.visibilityOf(webElement));
+        pageWait.until(ExpectedConditions.visibilityOf(webElement), seconds);
     }
 
     /**
@@ -294,7 +486,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBePresent(By locator) {
-        webDriverWait.until(ExpectedConditions.presenceOfElementLocated(locator));
+        pageWait.until(ExpectedConditions.presenceOfElementLocated(locator));
     }
 
     /**
@@ -305,7 +497,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBeClickable(WebElement webElement, long seconds) {
-        new WebDriverWait(webDriver, seconds).until(ExpectedConditions.elementToBeClickable(webElement));
+        pageWait.until(ExpectedConditions.elementToBeClickable(webElement), seconds);
     }
 
     /**
@@ -315,7 +507,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBeClickable(WebElement webElement) {
-        webDriverWait.until(ExpectedConditions.elementToBeClickable(webElement));
+        pageWait.until(ExpectedConditions.elementToBeClickable(webElement));
     }
 
     /**
@@ -327,7 +519,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitTextToBeVisibleInElement(WebElement webElement, String text, long seconds) {
-        new WebDriverWait(webDriver, seconds).until(ExpectedConditions.textToBePresentInElement(webElement, text));
+        pageWait.until(ExpectedConditions.textToBePresentInElement(webElement, text), seconds);
     }
 
     /**
@@ -338,7 +530,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitTextToBeVisibleInElement(WebElement webElement, String text) {
-        webDriverWait.until(ExpectedConditions.textToBePresentInElement(webElement, text));
+        pageWait.until(ExpectedConditions.textToBePresentInElement(webElement, text));
     }
 
     /**
@@ -348,7 +540,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBeVisible(WebElement webElement, long seconds) {
-        new WebDriverWait(webDriver, seconds).until(ExpectedConditions.visibilityOf(webElement));
+        pageWait.until(ExpectedConditions.visibilityOf(webElement), seconds);
     }
 
     /**
@@ -358,7 +550,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBeVisible(WebElement webElement) {
-        webDriverWait.until(ExpectedConditions.visibilityOf(webElement));
+        pageWait.until(ExpectedConditions.visibilityOf(webElement));
     }
 
     /**
@@ -368,7 +560,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitFrameToBeAvailableAndSwitchToIt(WebElement webElement, long seconds) {
-        new WebDriverWait(webDriver, seconds).until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(webElement));
+        pageWait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(webElement), seconds);
     }
 
     /**
@@ -378,7 +570,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitFrameToBeAvailableAndSwitchToIt(String webElement) {
-        webDriverWait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(webElement));
+        pageWait.until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(webElement));
     }
 
     /**
@@ -389,7 +581,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitForPageByTitle(String title, long seconds) {
-        new WebDriverWait(webDriver, seconds).until(ExpectedConditions.titleContains(title));
+        pageWait.until(ExpectedConditions.titleContains(title), seconds);
     }
 
     /**
@@ -399,7 +591,7 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitForPageByTitle(String title) {
-        webDriverWait.until(ExpectedConditions.titleContains(title));
+        pageWait.until(ExpectedConditions.titleContains(title));
     }
 
     /**
@@ -451,26 +643,94 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
 
     /**
      * Select drop down list item by text.
+     * The last element containing the text is selected, matching is done in browser.
      *
      * @param text text to be selected by
      */
     @Step
     public void selectDropDownListItemByText(String text) {
-        List<WebElement> options = webDriver.findElements(By.xpath("//*[contains(text(), '" + text + "')]"));
-        int index = options.size() - 1;
-        options.get(index).click();
+        findLastByXPath("//*[contains(text(), " + xpathLiteral(text) + ")]").click();
     }
 
     /**
      * Select drop down list item by title.
+     * The last element which title contains provided value is selected, matching is done in browser.
      *
      * @param title title to be selected by
      */
     @Step
     public void selectDropDownListItemByTitle(String title) {
-        List<WebElement> options = webDriver.findElements(By.xpath("//*[contains(@title, '" + title + "')]"));
-        int index = options.size() - 1;
-        options.get(index).click();
+        findLastByXPath("//*[contains(@title, " + xpathLiteral(title) + ")]").click();
+    }
+
+    /**
+     * Find last element matching XPath with single browser command.
+     *
+     * @param xpath XPath expression, user provided values should be quoted with {@link #xpathLiteral(String)}
+     * @return last matching element
+     * @throws NoSuchElementException when nothing matches
+     */
+    @Step
+    public WebElement findLastByXPath(String xpath) {
+        WebElement element = (WebElement) ((JavascriptExecutor) webDriver)
+                .executeScript(LAST_BY_XPATH_SCRIPT, xpath, null);
+        if (element == null) {
+            throw new NoSuchElementException("No element matches XPath: " + xpath);
+        }
+        return element;
+    }
+
+    /**
+     * Find first displayed element of provided list with single browser command.
+     *
+     * @param elements candidates
+     * @return first displayed element or null if none is displayed
+     */
+    @Step
+    public WebElement findFirstDisplayed(List<WebElement> elements) {
+        if (elements.isEmpty()) {
+            return null;
+        }
+        return (WebElement) ((JavascriptExecutor) webDriver).executeScript(FIRST_DISPLAYED_SCRIPT, elements);
+    }
+
+    /**
+     * Find first element matching CSS selector with exactly provided (trimmed rendered) text
+     * with single browser command. Text is passed as script argument, so no escaping is needed.
+     *
+     * @param scope       element to search in, null to search in whole document
+     * @param cssSelector CSS selector of candidates
+     * @param text        expected text
+     * @return matching element or null if none matches
+     */
+    @Step
+    public WebElement findFirstByText(WebElement scope, String cssSelector, String text) {
+        return (WebElement) ((JavascriptExecutor) webDriver)
+                .executeScript(FIRST_BY_TEXT_SCRIPT, scope, cssSelector, text);
+    }
+
+    /**
+     * Quote value as XPath string literal. Values containing both quote kinds are built with concat().
+     *
+     * @param value value to quote
+     * @return XPath literal
+     */
+    public static String xpathLiteral(String value) {
+        if (!value.contains("'")) {
+            return "'" + value + "'";
+        }
+        if (!value.contains("\"")) {
+            return "\"" + value + "\"";
+        }
+        StringBuilder literal = new StringBuilder("concat(");
+        String[] parts = value.split("'", -1);
+        for (int index = 0; index < parts.length; index++) {
+            if (index > 0) {
+                literal.append(", \"'\", ");
+            }
+            literal.append("'").append(parts[index]).append("'");
+        }
+        return literal.append(")").toString();
     }
 
     /**
@@ -502,13 +762,9 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void switchToIframe(By locator) {
-       // waitElementToBePresent(locator, 15);
-        List<WebElement> alliFrames = webDriver.findElements(locator);
-        for (WebElement iframe : alliFrames) {
-            if (iframe.isDisplayed()) {
-                webDriver.switchTo().frame(iframe);
-                break;
-            }
+        WebElement iframe = findFirstDisplayed(webDriver.findElements(locator));
+        if (iframe != null) {
+            webDriver.switchTo().frame(iframe);
         }
     }
 
@@ -579,15 +835,17 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
             webDriver.switchTo().defaultContent();
             sourceElement = webDriver.findElement(sourceLocator);
             destinationElement = webDriver.findElement(destinationLocator);
-            Actions builder = new Actions(webDriver);
-            webDriver.switchTo().defaultContent();
-            Action hold = builder.clickAndHold(sourceElement).build();
+            // Hold, move and release are performed as separate steps, drag targets react to intermediate moves
+            PageReadiness domQuiet = readiness().withDomQuietFor(DOM_QUIET_AFTER_ACTION_MILLIS);
+            Action hold = new Actions(webDriver).clickAndHold(sourceElement).build();
             hold.perform();
-            sleep(1000);
-            Action move = builder.moveToElement(destinationElement).release(destinationElement).build();
-            sleep(1000);
+            waitForPageReady(domQuiet);
+            Action move = new Actions(webDriver).moveToElement(destinationElement).build();
             move.perform();
-            sleep(1000);
+            waitForPageReady(domQuiet);
+            Action release = new Actions(webDriver).release(destinationElement).build();
+            release.perform();
+            waitForPageReady(domQuiet);
         } catch (StaleElementReferenceException e) {
             System.out.println("Element with " + sourceElement + "or" + destinationElement
                     + "is not attached to the page document " + Arrays.toString(e.getStackTrace()));
@@ -608,8 +866,9 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
     @Step
     public void unCheck(By locator) {
         if (isElementSelected(locator)) {
-            webDriver.findElement(locator).click();
-            sleep(300);
+            WebElement element = webDriver.findElement(locator);
+            element.click();
+            pageWait.until(ExpectedConditions.elementSelectionStateToBe(element, false));
         } else {
             System.out.print("Element not found or not selected");
         }
@@ -624,21 +883,54 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
     public void check(WebElement element) {
         if (!element.isSelected()) {
             element.click();
-            sleep(500);
+            pageWait.until(ExpectedConditions.elementSelectionStateToBe(element, true));
         } else {
             System.out.print("Element not found or not selected");
         }
     }
 
     /**
-     * Checks whether element is selected or not
+     * Checks whether element is selected or not.
+     * Absent element is reported as not selected without waiting.
      *
      * @param locator xpath to element
      * @return {@code true} if element is selected, {@code false} - otherwise.
      */
     @Step
     public boolean isElementSelected(By locator) {
-        return webDriver.findElement(locator).isSelected();
+        List<WebElement> elements = probe(() -> webDriver.findElements(locator));
+        return !elements.isEmpty() && elements.get(0).isSelected();
+    }
+
+    /**
+     * Checks whether element is present in DOM without waiting for it.
+     *
+     * @param locator locator of element
+     * @return {@code true} if element is present, {@code false} - otherwise.
+     */
+    @Step
+    public boolean isElementPresent(By locator) {
+        return !probe(() -> webDriver.findElements(locator)).isEmpty();
+    }
+
+    /**
+     * Run non-blocking existence check. Under "implicit" wait policy implicit wait
+     * is switched off for the time of the check, so absent element does not stall
+     * the test for the whole implicit wait timeout.
+     *
+     * @param check check to run
+     * @return check result
+     */
+    protected <T> T probe(Supplier<T> check) {
+        if (configuration.isExplicitWaitPolicy()) {
+            return check.get();
+        }
+        webDriver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
+        try {
+            return check.get();
+        } finally {
+            webDriver.manage().timeouts().implicitlyWait(configuration.getImplicitlyWait(), TimeUnit.SECONDS);
+        }
     }
 
     /**
@@ -675,12 +967,12 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
     }
 
     /**
-     * Accept alert window.
+     * Accept alert window in case it shows up within a short timeout.
      */
     @Step
     public void acceptAlert() {
         try {
-            webDriverWait.until(ExpectedConditions.alertIsPresent());
+            pageWait.until(ExpectedConditions.alertIsPresent(), ALERT_TIMEOUT_SECONDS);
             Alert alert = this.webDriver.switchTo().alert();
             alert.accept();
         } catch (Exception e) {
@@ -688,6 +980,40 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
         }
     }
 
+    /**
+     * Read state of all provided elements in one JavaScript round-trip.
+     * Replaces per element getText()/getAttribute()/isDisplayed()/getRect() commands.
+     *
+     * @param elements   elements to read
+     * @param attributes names of attributes to read
+     * @return snapshots in order of provided elements
+     */
+    @Step
+    public List<ElementSnapshot> snapshotElements(List<WebElement> elements, String... attributes) {
+        if (elements.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<?> rawSnapshots = (List<?>) ((JavascriptExecutor) webDriver)
+                .executeScript(SNAPSHOT_SCRIPT, elements, Arrays.asList(attributes));
+        List<ElementSnapshot> snapshots = new ArrayList<>(rawSnapshots.size());
+        for (Object rawSnapshot : rawSnapshots) {
+            Map<?, ?> snapshot = (Map<?, ?>) rawSnapshot;
+            Map<String, String> attributeValues = new LinkedHashMap<>();
+            ((Map<?, ?>) snapshot.get("attributes")).forEach((name, value) ->
+                    attributeValues.put(String.valueOf(name), value == null ? null : String.valueOf(value)));
+            snapshots.add(new ElementSnapshot(
+                    String.valueOf(snapshot.get("tagName")),
+                    String.valueOf(snapshot.get("text")),
+                    Boolean.TRUE.equals(snapshot.get("displayed")),
+                    attributeValues,
+                    ((Number) snapshot.get("x")).doubleValue(),
+                    ((Number) snapshot.get("y")).doubleValue(),
+                    ((Number) snapshot.get("width")).doubleValue(),
+                    ((Number) snapshot.get("height")).doubleValue()));
+        }
+        return snapshots;
+    }
+
     /**
      * Get list of Drop Down Texts
      *
@@ -696,10 +1022,8 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public List<String> getListOfDropDownTexts(WebElement dropDownElement) {
-        List<String> listOfDropDownTexts = new ArrayList<>();
         List<WebElement> allOptions = dropDownElement.findElements(By.tagName("option"));
-        listOfDropDownTexts.addAll(allOptions.stream().map(WebElement::getText).collect(Collectors.toList()));
-        return listOfDropDownTexts;
+        return snapshotElements(allOptions).stream().map(ElementSnapshot::getText).collect(Collectors.toList());
     }
 
     /**
@@ -709,18 +1033,25 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void waitElementToBeInvisible(WebElement webElement) {
-        webDriverWait.until(ExpectedConditions.invisibilityOf(webElement));
+        pageWait.until(ExpectedConditions.invisibilityOf(webElement));
     }
 
     /**
-     * Check if web element is displayed
+     * Check if web element is displayed.
+     * Absent or detached element is reported as not displayed without waiting.
      *
      * @param webElement WebElement to check
      * @return true if WebElement is displayed, false if not
      */
     @Step
     public boolean checkIfElementIsDisplayed(WebElement webElement) {
-        return webElement.isDisplayed();
+        return probe(() -> {
+            try {
+                return webElement.isDisplayed();
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                return false;
+            }
+        });
     }
 
     /**
@@ -731,14 +1062,10 @@ public abstract class BasePage extends SlowLoadableComponent<BasePage> {
      */
     @Step
     public void selectCalendarDate(WebElement webElement, String dd) {
-        List<WebElement> columns = webElement.findElements(By.tagName("td"));
-
-        for (WebElement cell : columns) {
-            // Select Date
-            if (cell.getText().equals(dd)) {
-                cell.findElement(By.linkText(dd)).click();
-                break;
-            }
+        // Select Date: link with the date text inside calendar cell
+        WebElement link = findFirstByText(webElement, "td a", dd);
+        if (link != null) {
+            link.click();
         }
     }
 
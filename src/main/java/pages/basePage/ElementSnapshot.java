@@ -0,0 +1,88 @@
+package pages.basePage;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Plain copy of element state read from browser in one script call:
+ * tag name, rendered text, visibility, requested attributes and bounding box.
+ */
+public class ElementSnapshot {
+
+    private final String tagName;
+    private final String text;
+    private final boolean displayed;
+    private final Map<String, String> attributes;
+    private final double x;
+    private final double y;
+    private final double width;
+    private final double height;
+
+    public ElementSnapshot(String tagName, String text, boolean displayed, Map<String, String> attributes,
+                           double x, double y, double width, double height) {
+        this.tagName = tagName;
+        this.text = text;
+        this.displayed = displayed;
+        this.attributes = Collections.unmodifiableMap(attributes);
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    /**
+     * Attribute value read during snapshot.
+     *
+     * @param name attribute name, should be requested when snapshot was taken
+     * @return attribute value or null if element has no such attribute
+     */
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return "ElementSnapshot{" +
+                "tagName='" + tagName + '\'' +
+                ", text='" + text + '\'' +
+                ", displayed=" + displayed +
+                ", attributes=" + attributes +
+                ", x=" + x +
+                ", y=" + y +
+                ", width=" + width +
+                ", height=" + height +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package pages.basePage;
+
+/**
+ * Declaration of conditions page object considers as "page is ready".
+ * Conditions are checked in browser by {@link BasePage#waitForPageReady()}.
+ */
+public class PageReadiness {
+
+    public static final String READY_STATE_INTERACTIVE = "interactive";
+    public static final String READY_STATE_COMPLETE = "complete";
+
+    private final String readyState;
+    private final boolean noPendingRequests;
+    private final long domQuietMillis;
+
+    private PageReadiness(String readyState, boolean noPendingRequests, long domQuietMillis) {
+        this.readyState = readyState;
+        this.noPendingRequests = noPendingRequests;
+        this.domQuietMillis = domQuietMillis;
+    }
+
+    /**
+     * Page is ready when document.readyState is "complete".
+     *
+     * @return readiness declaration
+     */
+    public static PageReadiness documentComplete() {
+        return new PageReadiness(READY_STATE_COMPLETE, false, 0);
+    }
+
+    /**
+     * Page is ready when document.readyState is "interactive" or "complete".
+     *
+     * @return readiness declaration
+     */
+    public static PageReadiness documentInteractive() {
+        return new PageReadiness(READY_STATE_INTERACTIVE, false, 0);
+    }
+
+    /**
+     * Additionally require no pending XHR/fetch requests.
+     *
+     * @return readiness declaration
+     */
+    public PageReadiness withNoPendingRequests() {
+        return new PageReadiness(readyState, true, domQuietMillis);
+    }
+
+    /**
+     * Additionally require no DOM mutations (nodes added/removed, text changed) for provided time.
+     *
+     * @param millis quiet period in milliseconds
+     * @return readiness declaration
+     */
+    public PageReadiness withDomQuietFor(long millis) {
+        return new PageReadiness(readyState, noPendingRequests, millis);
+    }
+
+    public String getReadyState() {
+        return readyState;
+    }
+
+    public boolean isNoPendingRequests() {
+        return noPendingRequests;
+    }
+
+    public long getDomQuietMillis() {
+        return domQuietMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "PageReadiness{" +
+                "readyState='" + readyState + '\'' +
+                ", noPendingRequests=" + noPendingRequests +
+                ", domQuietMillis=" + domQuietMillis +
+                '}';
+    }
+}
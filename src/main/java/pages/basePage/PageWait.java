@@ -0,0 +1,108 @@
+package pages.basePage;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import utils.Log;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Explicit wait reused by all waits of a page object.
+ * Polling starts fast and backs off exponentially up to the maximum interval,
+ * so conditions which are met quickly are not rounded up to a fixed polling step.
+ * Time every wait actually took is logged and available via {@link #getLastWaitMillis()}.
+ */
+public class PageWait {
+
+    private final WebDriver webDriver;
+    private final long defaultTimeoutMillis;
+    private final long initialPollingMillis;
+    private final long maxPollingMillis;
+    private long lastWaitMillis;
+
+    /**
+     * Create wait.
+     *
+     * @param webDriver             WebDriver conditions are applied to
+     * @param defaultTimeoutSeconds timeout used when wait is called without timeout
+     * @param initialPollingMillis  first polling interval
+     * @param maxPollingMillis      maximum polling interval
+     */
+    public PageWait(WebDriver webDriver, long defaultTimeoutSeconds, long initialPollingMillis, long maxPollingMillis) {
+        this.webDriver = webDriver;
+        this.defaultTimeoutMillis = TimeUnit.SECONDS.toMillis(defaultTimeoutSeconds);
+        this.initialPollingMillis = Math.max(1, initialPollingMillis);
+        this.maxPollingMillis = Math.max(this.initialPollingMillis, maxPollingMillis);
+    }
+
+    /**
+     * Wait default timeout till condition returns neither null nor false.
+     *
+     * @param condition condition to wait for
+     * @return condition result
+     */
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        return await(condition, defaultTimeoutMillis);
+    }
+
+    /**
+     * Wait provided time till condition returns neither null nor false.
+     *
+     * @param condition condition to wait for
+     * @param seconds   timeout in seconds
+     * @return condition result
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, long seconds) {
+        return await(condition, TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    /**
+     * Time in milliseconds the last wait took, including failed one.
+     *
+     * @return time in milliseconds
+     */
+    public long getLastWaitMillis() {
+        return lastWaitMillis;
+    }
+
+    private <T> T await(Function<? super WebDriver, T> condition, long timeoutMillis) {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long pollingMillis = initialPollingMillis;
+        RuntimeException lastException = null;
+
+        while (true) {
+            try {
+                T value = condition.apply(webDriver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    report(condition, start, true);
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                report(condition, start, false);
+                throw new TimeoutException("Expected condition failed: waiting for " + condition
+                        + " (tried for " + timeoutMillis + " ms)", lastException);
+            }
+            try {
+                Thread.sleep(Math.min(pollingMillis, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for " + condition, e);
+            }
+            pollingMillis = Math.min(pollingMillis * 2, maxPollingMillis);
+        }
+    }
+
+    private void report(Object condition, long start, boolean succeed) {
+        lastWaitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Log.debug("PW: Waited {} ms for {}{}", lastWaitMillis, condition, succeed ? "" : " and failed");
+    }
+}
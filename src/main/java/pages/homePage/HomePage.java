@@ -5,8 +5,10 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import pages.basePage.BasePage;
+import pages.basePage.PageReadiness;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class HomePage extends BasePage {
 
@@ -28,6 +30,9 @@ public class HomePage extends BasePage {
     public WebElement addToCartButton;
 
 
+    @FindBy(xpath = "//ul[@id = 'homefeatured']/li[.//span[@class='price-percent-reduction']]//a[contains(@class, 'ajax_add_to_cart_button')]")
+    public List<WebElement> discountedAddToCartButtons;
+
     @FindBy(xpath = "//*[@title = 'Continue shopping']")
     public WebElement continueShoppingButton;
 
@@ -48,6 +53,13 @@ public class HomePage extends BasePage {
         moveOnElement(salesPercentElement.get(index));
     }
 
+    @Step
+    public List<String> getDiscountedProductIds(){
+        return snapshotElements(discountedAddToCartButtons, "data-id-product").stream()
+                .map(snapshot -> snapshot.getAttribute("data-id-product"))
+                .collect(Collectors.toList());
+    }
+
     @Step
     public void moveOnShoppingCartArea(){
         waitElementToBePresent(viewShoppingCart, 10);
@@ -84,16 +96,18 @@ public class HomePage extends BasePage {
 
     }
 
+    @Override
+    protected PageReadiness readiness() {
+        // Product list hover blocks are built by scripts after load
+        return documentLoaded().withNoPendingRequests().withDomQuietFor(150);
+    }
+
     @Step
     @Override
     public void isLoaded() throws Error {
         checkPageTitle(strPageTitle);
      //   checkPageURL(strPageURL);
         waitElementToBeVisible(myStoreLogo);
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        checkPageReady();
     }
 }
@@ -0,0 +1,206 @@
+package pages.shoppingCartPage;
+
+import io.qameta.allure.Step;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.InvalidCookieDomainException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import utils.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpCookie;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Builds cart contents with direct HTTP calls of the shop cart controller instead of hover menus
+ * and popups. Calls share session cookies of the browser, cookies set by the shop (e.g. new cart)
+ * are copied back to the browser, so {@link #openCart(ShoppingCartPage)} shows seeded cart in the browser.
+ */
+public class CartStateSeeder {
+
+    private static final String CART_URL = "?controller=cart";
+    private static final String ORDER_URL = "?controller=order";
+    private static final Pattern STATIC_TOKEN_PATTERN = Pattern.compile("static_token\\s*=\\s*['\"]([0-9a-f]+)['\"]");
+    private static final Pattern NO_ERROR_PATTERN = Pattern.compile("\"hasError\"\\s*:\\s*false");
+    private static final int MAX_REPORTED_RESPONSE_LENGTH = 500;
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private final WebDriver webDriver;
+    private final String strSiteUrl;
+    private String staticToken;
+
+    /**
+     * Create seeder for the browser, "application.site.url" is used as shop URL.
+     *
+     * @param webDriver WebDriver object which session is seeded
+     */
+    public CartStateSeeder(WebDriver webDriver) {
+        this.webDriver = webDriver;
+        this.strSiteUrl = System.getProperty("application.site.url");
+    }
+
+    /**
+     * Add product to the cart.
+     *
+     * @param productId product id ("data-id-product" attribute of "Add to cart" button)
+     * @param quantity  quantity to add
+     * @return this seeder
+     */
+    @Step
+    public CartStateSeeder addProduct(String productId, int quantity) {
+        final String strBody = "add=1&ajax=true&qty=" + quantity
+                + "&id_product=" + encode(productId)
+                + "&token=" + encode(getStaticToken());
+        final String strResponse = send(strSiteUrl + CART_URL, strBody).trim();
+        // Shop answers with cart JSON, login or error page means the product is not added
+        final boolean added = strResponse.startsWith("{") && strResponse.endsWith("}")
+                && NO_ERROR_PATTERN.matcher(strResponse).find()
+                && Pattern.compile("\"id\"\\s*:\\s*\"?" + Pattern.quote(productId) + "\"?\\s*[,}]")
+                .matcher(strResponse).find();
+        if (!added) {
+            throw new IllegalStateException("Product " + productId + " is not added to the cart: "
+                    + strResponse.substring(0, Math.min(strResponse.length(), MAX_REPORTED_RESPONSE_LENGTH)));
+        }
+        return this;
+    }
+
+    /**
+     * Add one item of every provided product to the cart.
+     *
+     * @param productIds product ids
+     * @return this seeder
+     */
+    @Step
+    public CartStateSeeder addProducts(List<String> productIds) {
+        for (String productId : productIds) {
+            addProduct(productId, 1);
+        }
+        Log.info("CSS: {} product(s) are added to the cart", productIds.size());
+        return this;
+    }
+
+    /**
+     * Open seeded cart in the browser and hand it over to the page object.
+     *
+     * @param shoppingCartPage page object bound to the seeded browser
+     * @return loaded shopping cart page
+     */
+    @Step
+    public ShoppingCartPage openCart(ShoppingCartPage shoppingCartPage) {
+        webDriver.get(strSiteUrl + ORDER_URL);
+        shoppingCartPage.isLoaded();
+        return shoppingCartPage;
+    }
+
+    /**
+     * Token shop requires for cart changes. It is taken from the opened shop page,
+     * otherwise from the shop page loaded over HTTP with browser cookies.
+     */
+    private String getStaticToken() {
+        if (staticToken == null) {
+            Object token = ((JavascriptExecutor) webDriver)
+                    .executeScript("return typeof static_token === 'undefined' ? null : static_token;");
+            if (token == null) {
+                Matcher matcher = STATIC_TOKEN_PATTERN.matcher(send(strSiteUrl, null));
+                if (!matcher.find()) {
+                    throw new IllegalStateException("Static token is not found on " + strSiteUrl);
+                }
+                token = matcher.group(1);
+            }
+            staticToken = String.valueOf(token);
+        }
+        return staticToken;
+    }
+
+    private String send(String strUrl, String strFormBody) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(strUrl).openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setRequestProperty("Cookie", webDriver.manage().getCookies().stream()
+                    .map(cookie -> cookie.getName() + "=" + cookie.getValue())
+                    .collect(Collectors.joining("; ")));
+            connection.setRequestProperty("X-Requested-With", "XMLHttpRequest");
+            if (strFormBody != null) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+                try (OutputStream output = connection.getOutputStream()) {
+                    output.write(strFormBody.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            final int status = connection.getResponseCode();
+            copyCookiesToBrowser(connection);
+            if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                throw new IllegalStateException(strUrl + " responded with status " + status);
+            }
+            try (InputStream input = connection.getInputStream()) {
+                return readAll(input);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Problem during request to " + strUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void copyCookiesToBrowser(HttpURLConnection connection) {
+        final String strHost = connection.getURL().getHost();
+        for (int index = 1; connection.getHeaderFieldKey(index) != null; index++) {
+            if (!"Set-Cookie".equalsIgnoreCase(connection.getHeaderFieldKey(index))) {
+                continue;
+            }
+            for (HttpCookie httpCookie : HttpCookie.parse(connection.getHeaderField(index))) {
+                webDriver.manage().deleteCookieNamed(httpCookie.getName());
+                if (httpCookie.getMaxAge() == 0) {
+                    continue;
+                }
+                final String strDomain = httpCookie.getDomain();
+                if (strDomain == null || !HttpCookie.domainMatches(strDomain, strHost)) {
+                    addCookie(httpCookie, strHost);
+                    continue;
+                }
+                try {
+                    addCookie(httpCookie, strDomain);
+                } catch (InvalidCookieDomainException e) {
+                    // Browser rejects parent domain of the current page, cookie is still valid for the host
+                    addCookie(httpCookie, strHost);
+                }
+            }
+        }
+    }
+
+    private void addCookie(HttpCookie httpCookie, String strDomain) {
+        final Date expiry = httpCookie.getMaxAge() > 0
+                ? new Date(System.currentTimeMillis() + httpCookie.getMaxAge() * 1000) : null;
+        webDriver.manage().addCookie(new Cookie(httpCookie.getName(), httpCookie.getValue(), strDomain,
+                httpCookie.getPath() == null ? "/" : httpCookie.getPath(),
+                expiry, httpCookie.getSecure(), httpCookie.isHttpOnly()));
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readAll(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+            output.write(buffer, 0, read);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
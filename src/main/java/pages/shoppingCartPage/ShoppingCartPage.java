@@ -6,6 +6,9 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import pages.basePage.BasePage;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class ShoppingCartPage extends BasePage {
 
     public String strPageTitle = "Order - My Store";
@@ -16,6 +19,9 @@ public class ShoppingCartPage extends BasePage {
     @FindBy(xpath = "//*[text() = 'Proceed to checkout']")
     public WebElement  proceedToCheckoutButton ;
 
+    @FindBy(css = "#cart_summary tr.cart_item")
+    public List<WebElement> cartProductRows;
+
 
 
 
@@ -32,6 +38,18 @@ public class ShoppingCartPage extends BasePage {
         clickOnElement(proceedToCheckoutButton);
     }
 
+    /**
+     * Ids of products in the cart, one per product row ("product_&lt;id&gt;_&lt;combination&gt;_..." row id).
+     *
+     * @return product ids in order of rows
+     */
+    @Step
+    public List<String> getCartProductIds() {
+        return snapshotElements(cartProductRows, "id").stream()
+                .map(snapshot -> snapshot.getAttribute("id").split("_")[1])
+                .collect(Collectors.toList());
+    }
+
 
     @Step
     @Override
@@ -43,10 +61,6 @@ public class ShoppingCartPage extends BasePage {
     public void isLoaded() throws Error {
         checkPageTitle(strPageTitle);
         checkIfElementIsVisible(cartTitle);
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        checkPageReady();
     }
 }
\ No newline at end of file
@@ -0,0 +1,278 @@
+package replay;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.Configuration;
+import utils.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Local HTTP stand-in for the application under test.
+ * In "record" mode requests are served from the archive, missing ones are fetched from the real site
+ * and recorded. In "replay" mode requests are served from the archive only, so tests need no network.
+ * While server runs "application.site.url" points to it, and links to the real site in recorded pages,
+ * styles and scripts are rewritten to it, so all resources of the site are served locally.
+ * Resources of other hosts (fonts, analytics) are not recorded, block them with "blocked.hosts".
+ * Query parameters listed in "replay.ignored.params" (cache busters) do not distinguish recorded requests.
+ */
+public final class ReplayServer {
+
+    private static final String SITE_URL_PROPERTY = "application.site.url";
+    private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final int READ_TIMEOUT_MILLIS = 30000;
+    private static final List<String> SKIPPED_REQUEST_HEADERS =
+            Arrays.asList("host", "connection", "accept-encoding", "content-length", "transfer-encoding");
+    private static final List<String> SKIPPED_RESPONSE_HEADERS =
+            Arrays.asList("connection", "content-length", "content-encoding", "transfer-encoding", "keep-alive");
+
+    private static final Configuration configuration = Configuration.instance();
+    private static ReplayServer runningServer;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResponseArchive archive;
+    private final boolean recording;
+    private final String originalSiteUrl;
+    private final String upstreamOrigin;
+    private final String upstreamAuthority;
+    private final String localAuthority;
+
+    private ReplayServer(String strSiteUrl, ResponseArchive archive, boolean recording, int port) throws IOException {
+        final URL siteUrl = new URL(strSiteUrl);
+        this.originalSiteUrl = strSiteUrl;
+        this.upstreamAuthority = siteUrl.getAuthority();
+        this.upstreamOrigin = siteUrl.getProtocol() + "://" + upstreamAuthority;
+        this.archive = archive;
+        this.recording = recording;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.localAuthority = "127.0.0.1:" + server.getAddress().getPort();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "replay-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Start server in case of "replay.mode" is "record" or "replay" and point "application.site.url" to it.
+     * Does nothing when server is already running.
+     */
+    public static synchronized void startIfEnabled() {
+        final String strMode = configuration.getReplayMode().toLowerCase(Locale.ROOT);
+        if (runningServer != null || Configuration.REPLAY_MODE_OFF.equals(strMode)) {
+            return;
+        }
+        if (!Configuration.REPLAY_MODE_RECORD.equals(strMode) && !Configuration.REPLAY_MODE_REPLAY.equals(strMode)) {
+            throw new IllegalStateException("\"replay.mode\" should be off, record or replay");
+        }
+        final String strSiteUrl = System.getProperty(SITE_URL_PROPERTY);
+        if (strSiteUrl == null) {
+            throw new IllegalStateException("\"" + SITE_URL_PROPERTY + "\" is required for replay server");
+        }
+        try {
+            final List<String> ignoredParams = Arrays.stream(configuration.getReplayIgnoredParams().split(","))
+                    .map(String::trim)
+                    .filter(strParam -> !strParam.isEmpty())
+                    .collect(Collectors.toList());
+            runningServer = start(strSiteUrl,
+                    new ResponseArchive(Paths.get(configuration.getReplayArchive()), ignoredParams),
+                    Configuration.REPLAY_MODE_RECORD.equals(strMode), configuration.getReplayPort());
+        } catch (IOException e) {
+            throw new IllegalStateException("Replay server can not be started: " + e.getMessage(), e);
+        }
+        System.setProperty(SITE_URL_PROPERTY, runningServer.getLocalSiteUrl());
+        Log.info("RS: Replay server in {} mode serves {} at {}, archive {}", strMode, runningServer.upstreamOrigin,
+                runningServer.localAuthority, runningServer.archive.getDirectory().toAbsolutePath());
+    }
+
+    /**
+     * Stop server and restore "application.site.url".
+     */
+    public static synchronized void stopIfRunning() {
+        if (runningServer == null) {
+            return;
+        }
+        runningServer.stop();
+        System.setProperty(SITE_URL_PROPERTY, runningServer.originalSiteUrl);
+        runningServer = null;
+    }
+
+    /**
+     * Start server for provided site, "application.site.url" is not changed.
+     *
+     * @param strSiteUrl site URL, its origin is recorded and replayed
+     * @param archive    archive of recorded responses
+     * @param recording  whether missing responses are fetched from the site and recorded
+     * @param port       local port, 0 for any free port
+     * @return started server
+     * @throws IOException when server can not be started
+     */
+    public static ReplayServer start(String strSiteUrl, ResponseArchive archive, boolean recording, int port)
+            throws IOException {
+        final ReplayServer replayServer = new ReplayServer(strSiteUrl, archive, recording, port);
+        replayServer.server.start();
+        return replayServer;
+    }
+
+    /**
+     * Stop server started by {@link #start(String, ResponseArchive, boolean, int)}.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return site URL pointing to this server
+     */
+    public String getLocalSiteUrl() {
+        return toLocal(originalSiteUrl);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            final String strMethod = exchange.getRequestMethod();
+            final String strPathAndQuery = exchange.getRequestURI().getRawPath()
+                    + (exchange.getRequestURI().getRawQuery() == null ? "" : "?" + exchange.getRequestURI().getRawQuery());
+            final byte[] requestBody = readAll(exchange.getRequestBody());
+
+            ResponseArchive.RecordedResponse response = archive.find(strMethod, strPathAndQuery, requestBody);
+            if (response == null && recording) {
+                response = fetch(strMethod, strPathAndQuery, exchange.getRequestHeaders(), requestBody);
+                archive.save(strMethod, strPathAndQuery, requestBody, response);
+                Log.debug("RS: Recorded {} {} -> {}", strMethod, strPathAndQuery, response.getStatus());
+            }
+            if (response == null) {
+                Log.warn("RS: {} {} is not recorded", strMethod, strPathAndQuery);
+                send(exchange, 404, new ArrayList<>(), "Not recorded".getBytes(StandardCharsets.UTF_8));
+            } else {
+                send(exchange, response.getStatus(), response.getHeaders(), response.getBody());
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.error("RS: Problem during serving of {}: {}", exchange.getRequestURI(), e.getMessage());
+            send(exchange, 502, new ArrayList<>(), String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private ResponseArchive.RecordedResponse fetch(String strMethod, String strPathAndQuery, Headers requestHeaders,
+                                                   byte[] requestBody) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(upstreamOrigin + strPathAndQuery).openConnection();
+        connection.setRequestMethod(strMethod);
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        for (Map.Entry<String, List<String>> header : requestHeaders.entrySet()) {
+            if (!SKIPPED_REQUEST_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValue()) {
+                    connection.addRequestProperty(header.getKey(), toUpstream(value));
+                }
+            }
+        }
+        // Plain bodies are recorded, so links in them can be rewritten
+        connection.setRequestProperty("Accept-Encoding", "identity");
+        if (requestBody.length > 0) {
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(requestBody);
+            }
+        }
+
+        final int status = connection.getResponseCode();
+        final List<String[]> headers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            if (header.getKey() != null && !SKIPPED_RESPONSE_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValue()) {
+                    headers.add(new String[]{header.getKey(), value});
+                }
+            }
+        }
+        final InputStream body = status >= HttpURLConnection.HTTP_BAD_REQUEST
+                ? connection.getErrorStream() : connection.getInputStream();
+        try {
+            return new ResponseArchive.RecordedResponse(status, headers, body == null ? new byte[0] : readAll(body));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, List<String[]> headers, byte[] body) throws IOException {
+        boolean textual = false;
+        for (String[] header : headers) {
+            String strName = header[0].toLowerCase(Locale.ROOT);
+            String strValue = header[1];
+            if ("location".equals(strName)) {
+                strValue = toLocal(strValue);
+            } else if ("set-cookie".equals(strName)) {
+                // Cookies of the real domain would be rejected for the local one
+                strValue = strValue.replaceAll("(?i);\\s*domain=[^;]*", "").replaceAll("(?i);\\s*secure", "");
+            } else if ("content-type".equals(strName)) {
+                textual = isTextual(strValue);
+            }
+            exchange.getResponseHeaders().add(header[0], strValue);
+        }
+        if (textual) {
+            // ISO-8859-1 maps bytes to chars one to one, so body encoding is preserved
+            body = toLocal(new String(body, StandardCharsets.ISO_8859_1)).getBytes(StandardCharsets.ISO_8859_1);
+        }
+        final boolean noBody = "HEAD".equals(exchange.getRequestMethod()) || status == 204 || status == 304;
+        exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    private static boolean isTextual(String strContentType) {
+        String contentType = strContentType.toLowerCase(Locale.ROOT);
+        return contentType.startsWith("text/") || contentType.contains("javascript")
+                || contentType.contains("json") || contentType.contains("xml");
+    }
+
+    /**
+     * Rewrite links to the real site, including protocol relative and JSON escaped ones, to the local server.
+     */
+    private String toLocal(String value) {
+        return value
+                .replace("https://" + upstreamAuthority, "http://" + localAuthority)
+                .replace("https:\\/\\/" + upstreamAuthority, "http:\\/\\/" + localAuthority)
+                .replace("//" + upstreamAuthority, "//" + localAuthority)
+                .replace("\\/\\/" + upstreamAuthority, "\\/\\/" + localAuthority);
+    }
+
+    private String toUpstream(String value) {
+        return value.replace("http://" + localAuthority, upstreamOrigin);
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
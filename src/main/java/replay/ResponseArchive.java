@@ -0,0 +1,184 @@
+package replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * On-disk archive of recorded HTTP responses.
+ * Response is stored as two files named by hash of method, path with query and request body:
+ * "&lt;hash&gt;.properties" with status and headers and "&lt;hash&gt;.body" with raw body.
+ * Volatile query parameters (cache busters, timestamps) are left out of the hash,
+ * so requests differing only in them share one recorded response.
+ * Files are written aside and moved into place atomically, so responses can be found while others are saved.
+ */
+public class ResponseArchive {
+
+    private static final String META_EXTENSION = ".properties";
+    private static final String BODY_EXTENSION = ".body";
+
+    private final Path directory;
+    private final Set<String> ignoredParams;
+
+    public ResponseArchive(Path directory) {
+        this(directory, Collections.emptySet());
+    }
+
+    /**
+     * @param directory     archive directory
+     * @param ignoredParams names of query parameters which are not part of request identity
+     */
+    public ResponseArchive(Path directory, Collection<String> ignoredParams) {
+        this.directory = directory;
+        this.ignoredParams = new HashSet<>(ignoredParams);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Find recorded response.
+     *
+     * @param strMethod      HTTP method
+     * @param strPathAndQuery request path with query
+     * @param requestBody    request body, empty for GET
+     * @return recorded response or null when request was not recorded
+     */
+    public RecordedResponse find(String strMethod, String strPathAndQuery, byte[] requestBody) throws IOException {
+        final String key = key(strMethod, strPathAndQuery, requestBody);
+        final Path metaFile = directory.resolve(key + META_EXTENSION);
+        final Path bodyFile = directory.resolve(key + BODY_EXTENSION);
+        if (!Files.exists(metaFile) || !Files.exists(bodyFile)) {
+            return null;
+        }
+        final Properties meta = new Properties();
+        try (InputStream input = Files.newInputStream(metaFile)) {
+            meta.load(input);
+        }
+        final List<String[]> headers = new ArrayList<>();
+        for (int index = 0; meta.containsKey("header." + index); index++) {
+            String header = meta.getProperty("header." + index);
+            int separator = header.indexOf(':');
+            headers.add(new String[]{header.substring(0, separator), header.substring(separator + 1).trim()});
+        }
+        return new RecordedResponse(Integer.parseInt(meta.getProperty("status")), headers, Files.readAllBytes(bodyFile));
+    }
+
+    /**
+     * Save response, previously recorded response of the same request is replaced.
+     *
+     * @param strMethod       HTTP method
+     * @param strPathAndQuery request path with query
+     * @param requestBody     request body, empty for GET
+     * @param response        response to save
+     */
+    public synchronized void save(String strMethod, String strPathAndQuery, byte[] requestBody,
+                                  RecordedResponse response) throws IOException {
+        Files.createDirectories(directory);
+        final String key = key(strMethod, strPathAndQuery, requestBody);
+        final Properties meta = new Properties();
+        meta.setProperty("request", strMethod + " " + strPathAndQuery);
+        meta.setProperty("status", String.valueOf(response.getStatus()));
+        for (int index = 0; index < response.getHeaders().size(); index++) {
+            String[] header = response.getHeaders().get(index);
+            meta.setProperty("header." + index, header[0] + ": " + header[1]);
+        }
+        // Body is written first, so response is never found with missing body
+        final Path bodyFile = Files.createTempFile(directory, key, BODY_EXTENSION + ".tmp");
+        Files.write(bodyFile, response.getBody());
+        moveIntoPlace(bodyFile, directory.resolve(key + BODY_EXTENSION));
+        final Path metaFile = Files.createTempFile(directory, key, META_EXTENSION + ".tmp");
+        try (OutputStream output = Files.newOutputStream(metaFile)) {
+            meta.store(output, null);
+        }
+        moveIntoPlace(metaFile, directory.resolve(key + META_EXTENSION));
+    }
+
+    /**
+     * Replace target by fully written file at once, so parallel {@link #find} never reads half written file.
+     */
+    private static void moveIntoPlace(Path file, Path target) throws IOException {
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private String key(String strMethod, String strPathAndQuery, byte[] requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update((strMethod + " " + normalize(strPathAndQuery) + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(requestBody);
+            StringBuilder key = new StringBuilder();
+            for (byte value : digest.digest()) {
+                key.append(String.format("%02x", value));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Remove ignored parameters from query, order of other parameters is kept.
+     *
+     * @param strPathAndQuery request path with query
+     * @return path with query without ignored parameters
+     */
+    public String normalize(String strPathAndQuery) {
+        final int separator = strPathAndQuery.indexOf('?');
+        if (separator < 0 || ignoredParams.isEmpty()) {
+            return strPathAndQuery;
+        }
+        final String strQuery = Arrays.stream(strPathAndQuery.substring(separator + 1).split("&"))
+                .filter(strParam -> !strParam.isEmpty())
+                .filter(strParam -> !ignoredParams.contains(strParam.split("=", 2)[0]))
+                .collect(Collectors.joining("&"));
+        final String strPath = strPathAndQuery.substring(0, separator);
+        return strQuery.isEmpty() ? strPath : strPath + "?" + strQuery;
+    }
+
+    /**
+     * Recorded response: status, headers in original order and raw body.
+     */
+    public static class RecordedResponse {
+        private final int status;
+        private final List<String[]> headers;
+        private final byte[] body;
+
+        public RecordedResponse(int status, List<String[]> headers, byte[] body) {
+            this.status = status;
+            this.headers = Collections.unmodifiableList(headers);
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public List<String[]> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
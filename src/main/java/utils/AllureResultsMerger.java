@@ -0,0 +1,90 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Merges Allure results of shards into one results directory, so one report is generated for the whole run.
+ * Result, container and attachment files have unique names and are copied as they are,
+ * "environment.properties" of shards are combined, other shared files (executor.json, categories.json)
+ * are taken from the first shard that has them.
+ * Run as: java utils.AllureResultsMerger &lt;target directory&gt; &lt;shard results directory&gt;...
+ */
+public final class AllureResultsMerger {
+
+    private static final String ENVIRONMENT_FILE = "environment.properties";
+
+    private AllureResultsMerger() {
+        // Empty constructor
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: AllureResultsMerger <target directory> <shard results directory>...");
+        }
+        final List<Path> sources = new ArrayList<>();
+        for (String strSource : Arrays.copyOfRange(args, 1, args.length)) {
+            sources.add(Paths.get(strSource));
+        }
+        merge(Paths.get(args[0]), sources);
+    }
+
+    /**
+     * Copy results of all shards into target directory.
+     *
+     * @param target  merged results directory, created when missing
+     * @param sources results directories of shards, missing ones are skipped
+     * @return number of merged files
+     */
+    public static int merge(Path target, List<Path> sources) throws IOException {
+        Files.createDirectories(target);
+        final Properties environment = new Properties();
+        final Path targetEnvironment = target.resolve(ENVIRONMENT_FILE);
+        if (Files.exists(targetEnvironment)) {
+            load(environment, targetEnvironment);
+        }
+        int merged = 0;
+        for (Path source : sources) {
+            if (!Files.isDirectory(source)) {
+                Log.warn("ARM: Shard results {} are missing", source);
+                continue;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(source, Files::isRegularFile)) {
+                for (Path file : files) {
+                    String strName = file.getFileName().toString();
+                    Path targetFile = target.resolve(strName);
+                    if (ENVIRONMENT_FILE.equals(strName)) {
+                        load(environment, file);
+                    } else if (!Files.exists(targetFile)) {
+                        Files.copy(file, targetFile, StandardCopyOption.COPY_ATTRIBUTES);
+                        merged++;
+                    }
+                }
+            }
+        }
+        if (!environment.isEmpty()) {
+            try (OutputStream output = Files.newOutputStream(targetEnvironment)) {
+                environment.store(output, null);
+            }
+        }
+        Log.info("ARM: {} result files of {} shards are merged into {}", merged, sources.size(),
+                target.toAbsolutePath());
+        return merged;
+    }
+
+    private static void load(Properties properties, Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+    }
+}
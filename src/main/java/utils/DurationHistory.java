@@ -0,0 +1,208 @@
+package utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durations of test methods and test classes across runs, kept in "duration.history.file".
+ * Every entry is "method.Class.method=averageMillis,runs" or "class.Class=averageMillis,runs",
+ * where average is exponential moving average, so the file stays small and follows recent runs.
+ * Class duration includes its configuration methods. Durations of the current run are merged into
+ * the file when suite finishes, file is locked during merge and read, so parallel JVMs do not lose entries
+ * or read half written file.
+ */
+public final class DurationHistory {
+
+    private static final String METHOD_PREFIX = "method.";
+    private static final String CLASS_PREFIX = "class.";
+    // Weight of the latest run in the moving average
+    private static final double LATEST_RUN_WEIGHT = 0.3;
+
+    private static final Configuration configuration = Configuration.instance();
+    private static final Map<String, AtomicLong> runDurations = new ConcurrentHashMap<>();
+    private static volatile Map<String, Long> history;
+
+    private DurationHistory() {
+        // Empty constructor
+    }
+
+    public static boolean isEnabled() {
+        return configuration.getDurationHistoryEnabled();
+    }
+
+    /**
+     * Record single invocation of test or configuration method of the current run.
+     *
+     * @param strClassName   test class name
+     * @param strMethodName  method name
+     * @param testMethod     whether method is test method, configuration methods count for class only
+     * @param durationMillis invocation duration in milliseconds
+     */
+    public static void record(String strClassName, String strMethodName, boolean testMethod, long durationMillis) {
+        if (durationMillis < 0) {
+            return;
+        }
+        if (testMethod) {
+            runDurations.computeIfAbsent(METHOD_PREFIX + strClassName + "." + strMethodName, key -> new AtomicLong())
+                    .addAndGet(durationMillis);
+        }
+        runDurations.computeIfAbsent(classKey(strClassName), key -> new AtomicLong()).addAndGet(durationMillis);
+    }
+
+    /**
+     * Historical duration of test method, all its invocations in a run are summed.
+     *
+     * @param strClassName  test class name
+     * @param strMethodName test method name
+     * @return duration in milliseconds or -1 when method has no history
+     */
+    public static long getMethodDuration(String strClassName, String strMethodName) {
+        return getHistory().getOrDefault(METHOD_PREFIX + strClassName + "." + strMethodName, -1L);
+    }
+
+    /**
+     * Historical duration of test class including configuration methods.
+     *
+     * @param strClassName test class name
+     * @return duration in milliseconds or -1 when class has no history
+     */
+    public static long getClassDuration(String strClassName) {
+        return getHistory().getOrDefault(classKey(strClassName), -1L);
+    }
+
+    /**
+     * @param strClassName test class name
+     * @return history entry key of test class
+     */
+    public static String classKey(String strClassName) {
+        return CLASS_PREFIX + strClassName;
+    }
+
+    /**
+     * Merge durations of the current run into history file.
+     * Does nothing when nothing was recorded.
+     */
+    public static synchronized void writeHistory() {
+        if (runDurations.isEmpty()) {
+            return;
+        }
+        final Path historyFile = Paths.get(configuration.getDurationHistoryFile()).toAbsolutePath();
+        final Map<String, Long> durations = new TreeMap<>();
+        runDurations.forEach((key, duration) -> durations.put(key, duration.get()));
+        try {
+            merge(historyFile, durations);
+            runDurations.clear();
+            history = null;
+            Log.info("DH: Test duration history is written to {}", historyFile);
+        } catch (IOException e) {
+            Log.error("DH: Problem during test duration history writing: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merge durations into history file under exclusive file lock. New entries are added as they are,
+     * known entries get exponential moving average with the latest run weighted by 0.3.
+     *
+     * @param historyFile history file, created when missing
+     * @param durations   durations in milliseconds by history entry key
+     * @throws IOException when file can not be read or written
+     */
+    public static void merge(Path historyFile, Map<String, Long> durations) throws IOException {
+        if (historyFile.getParent() != null) {
+            Files.createDirectories(historyFile.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(historyFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            final Map<String, long[]> entries = parse(readAll(channel));
+            for (Map.Entry<String, Long> duration : durations.entrySet()) {
+                long[] entry = entries.get(duration.getKey());
+                entries.put(duration.getKey(), entry == null
+                        ? new long[]{duration.getValue(), 1}
+                        : new long[]{Math.round(entry[0] * (1 - LATEST_RUN_WEIGHT) + duration.getValue() * LATEST_RUN_WEIGHT),
+                        entry[1] + 1});
+            }
+            final StringBuilder content = new StringBuilder();
+            for (Map.Entry<String, long[]> entry : entries.entrySet()) {
+                content.append(entry.getKey()).append('=')
+                        .append(entry.getValue()[0]).append(',').append(entry.getValue()[1]).append('\n');
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)), 0);
+        }
+    }
+
+    /**
+     * Average durations kept in history file.
+     *
+     * @param historyFile history file
+     * @return average duration in milliseconds by history entry key, empty when file does not exist
+     * @throws IOException when file can not be read
+     */
+    public static Map<String, Long> read(Path historyFile) throws IOException {
+        final Map<String, Long> averages = new TreeMap<>();
+        if (!Files.exists(historyFile)) {
+            return averages;
+        }
+        // Shared lock waits for merge of other JVM, so truncated file is never read
+        try (FileChannel channel = FileChannel.open(historyFile, StandardOpenOption.READ);
+             FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+            for (Map.Entry<String, long[]> entry : parse(readAll(channel)).entrySet()) {
+                averages.put(entry.getKey(), entry.getValue()[0]);
+            }
+        }
+        return averages;
+    }
+
+    private static Map<String, Long> getHistory() {
+        Map<String, Long> current = history;
+        if (current == null) {
+            final Path historyFile = Paths.get(configuration.getDurationHistoryFile());
+            try {
+                current = new ConcurrentHashMap<>(read(historyFile));
+            } catch (IOException e) {
+                current = new ConcurrentHashMap<>();
+                Log.warn("DH: Test duration history {} can not be read: {}", historyFile, e.getMessage());
+            }
+            history = current;
+        }
+        return current;
+    }
+
+    private static Map<String, long[]> parse(String strContent) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new StringReader(strContent));
+        final Map<String, long[]> entries = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(key).split(",");
+            try {
+                entries.put(key, new long[]{Long.parseLong(values[0].trim()),
+                        values.length > 1 ? Long.parseLong(values[1].trim()) : 1});
+            } catch (NumberFormatException e) {
+                Log.warn("DH: Incorrect test duration history entry {} is skipped", key);
+            }
+        }
+        return entries;
+    }
+
+    private static String readAll(FileChannel channel) throws IOException {
+        final ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+        while (content.hasRemaining() && channel.read(content, content.position()) > 0) {
+            // Read till the end of file
+        }
+        return new String(content.array(), 0, content.position(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,197 @@
+package utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntries;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Failure artifacts (screenshot, page source, URL and browser console log) attached to the Allure report.
+ * Test thread only takes raw data from the browser and registers attachments in the current test case,
+ * encoding, compression and writing of attachment files run on a bounded background executor.
+ * When executor queue is full the task runs on the test thread, so a burst of failures slows tests down
+ * instead of piling up screenshots in memory.
+ */
+public final class FailureArtifacts {
+
+    private static final String GZIP_TYPE = "application/gzip";
+
+    private static final Configuration configuration = Configuration.instance();
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    private FailureArtifacts() {
+        // Empty constructor
+    }
+
+    public static boolean isEnabled() {
+        return configuration.getFailureArtifactsEnabled();
+    }
+
+    /**
+     * Capture artifacts of provided browser and attach them to the current Allure test case.
+     * Has to be called on the test thread while test case is still running.
+     *
+     * @param webDriver   WebDriver object of the failed test
+     * @param strTestName test name used in log messages
+     */
+    public static void capture(WebDriver webDriver, String strTestName) {
+        final long start = System.nanoTime();
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        if (!lifecycle.getCurrentTestCase().isPresent()) {
+            Log.warn("FA: No running Allure test case, failure artifacts of {} are not captured", strTestName);
+            return;
+        }
+
+        String url = safely(webDriver::getCurrentUrl, "current URL");
+        if (url != null) {
+            submit(lifecycle, "Page URL", "text/uri-list", "uri", url);
+        }
+        if (webDriver instanceof TakesScreenshot) {
+            byte[] screenshot = safely(() -> ((TakesScreenshot) webDriver).getScreenshotAs(OutputType.BYTES), "screenshot");
+            if (screenshot != null) {
+                submit(lifecycle, "Page screenshot", "image/png", "png", screenshot);
+            }
+        }
+        String pageSource = safely(webDriver::getPageSource, "page source");
+        if (pageSource != null) {
+            submit(lifecycle, "Page source", "text/html", "html", pageSource);
+        }
+        LogEntries consoleLog = safely(() -> webDriver.manage().logs().get(LogType.BROWSER), "browser console log");
+        if (consoleLog != null && !consoleLog.getAll().isEmpty()) {
+            submit(lifecycle, "Browser console log", "text/plain", "txt", consoleLog);
+        }
+        Log.info("FA: Failure artifacts of {} are taken in {} ms",
+                strTestName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Wait till all submitted artifacts are written.
+     *
+     * @param seconds maximum time to wait
+     */
+    public static void awaitCompletion(long seconds) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                Log.warn("FA: Failure artifacts are still being written after {} s", seconds);
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Register attachment in the current test case and write its content in background.
+     * Size of text content is known before encoding, so decision about compression is made here.
+     */
+    private static void submit(AllureLifecycle lifecycle, String strName, String strType, String strExtension,
+                               Object content) {
+        if (content instanceof byte[] && ((byte[]) content).length > configuration.getFailureArtifactsMaxBytes()) {
+            Log.warn("FA: {} exceeds size cap and is dropped", strName);
+            return;
+        }
+        final boolean compressed = !(content instanceof byte[])
+                && estimateSize(content) > configuration.getFailureArtifactsCompressBytes();
+        final String source = compressed
+                ? lifecycle.prepareAttachment(strName, GZIP_TYPE, strExtension + ".gz")
+                : lifecycle.prepareAttachment(strName, strType, strExtension);
+        executor.execute(() -> write(lifecycle, strName, source, content, compressed));
+    }
+
+    private static void write(AllureLifecycle lifecycle, String strName, String strSource, Object content,
+                              boolean compressed) {
+        try {
+            byte[] bytes = encode(content);
+            if (compressed) {
+                bytes = gzip(bytes);
+            }
+            if (bytes.length > configuration.getFailureArtifactsMaxBytes()) {
+                bytes = ("Attachment is dropped, its size " + bytes.length + " bytes exceeds "
+                        + configuration.getFailureArtifactsMaxBytes() + " bytes").getBytes(StandardCharsets.UTF_8);
+                if (compressed) {
+                    bytes = gzip(bytes);
+                }
+                Log.warn("FA: {} exceeds size cap and is dropped", strName);
+            }
+            lifecycle.writeAttachment(strSource, new ByteArrayInputStream(bytes));
+        } catch (IOException | RuntimeException e) {
+            Log.error("FA: Problem during writing of {}: {}", strName, e.getMessage());
+        }
+    }
+
+    private static byte[] encode(Object content) {
+        if (content instanceof byte[]) {
+            return (byte[]) content;
+        }
+        if (content instanceof LogEntries) {
+            StringBuilder builder = new StringBuilder();
+            for (LogEntry entry : (LogEntries) content) {
+                builder.append(entry.toString()).append(System.lineSeparator());
+            }
+            return builder.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return String.valueOf(content).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long estimateSize(Object content) {
+        if (content instanceof LogEntries) {
+            return ((LogEntries) content).getAll().stream()
+                    .mapToLong(entry -> entry.getMessage() == null ? 0 : entry.getMessage().length())
+                    .sum();
+        }
+        return String.valueOf(content).length();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(bytes);
+        }
+        return output.toByteArray();
+    }
+
+    private static <T> T safely(Supplier<T> supplier, String strArtifact) {
+        try {
+            return supplier.get();
+        } catch (WebDriverException e) {
+            Log.warn("FA: Unable to take {}: {}", strArtifact, String.valueOf(e.getMessage()).split("\n")[0]);
+            return null;
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, configuration.getFailureArtifactsThreads());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, configuration.getFailureArtifactsQueueSize())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "failure-artifacts-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
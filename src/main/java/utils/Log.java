@@ -2,32 +2,135 @@ package utils;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
 
+import java.util.function.Supplier;
+
+/**
+ * Logging facade.
+ * Prefer parameterized ("{}" placeholders) or Supplier based methods: message is built only when level
+ * is enabled, and parameterized messages are formatted without garbage by log4j2.
+ * Events are passed to async root logger (see log4j2.xml), so logging does not block test threads.
+ */
 public class Log {
 
+    private static final String TEST_CONTEXT_KEY = "test";
+
     private Log() {
         // Empty constructor
     }
 
     private static final Logger logger = LogManager.getLogger(Log.class);
 
+    /**
+     * Attach test name to all messages logged by the current thread.
+     *
+     * @param strTestName test name
+     */
+    public static void setTestContext(String strTestName) {
+        ThreadContext.put(TEST_CONTEXT_KEY, strTestName);
+    }
+
+    /**
+     * Remove test name from messages logged by the current thread.
+     */
+    public static void clearTestContext() {
+        ThreadContext.remove(TEST_CONTEXT_KEY);
+    }
+
     public static void info(String strMessage) {
         logger.info(strMessage);
     }
 
+    public static void info(String strMessage, Object param) {
+        logger.info(strMessage, param);
+    }
+
+    public static void info(String strMessage, Object param1, Object param2) {
+        logger.info(strMessage, param1, param2);
+    }
+
+    public static void info(String strMessage, Object... params) {
+        logger.info(strMessage, params);
+    }
+
+    public static void info(Supplier<String> messageSupplier) {
+        if (logger.isInfoEnabled()) {
+            logger.info(messageSupplier.get());
+        }
+    }
+
     public static void warn(String strMessage) {
         logger.warn(strMessage);
     }
 
+    public static void warn(String strMessage, Object param) {
+        logger.warn(strMessage, param);
+    }
+
+    public static void warn(String strMessage, Object param1, Object param2) {
+        logger.warn(strMessage, param1, param2);
+    }
+
+    public static void warn(String strMessage, Object... params) {
+        logger.warn(strMessage, params);
+    }
+
+    public static void warn(Supplier<String> messageSupplier) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(messageSupplier.get());
+        }
+    }
+
     public static void error(String strMessage) {
         logger.error(strMessage);
     }
 
+    public static void error(String strMessage, Object param) {
+        logger.error(strMessage, param);
+    }
+
+    public static void error(String strMessage, Object param1, Object param2) {
+        logger.error(strMessage, param1, param2);
+    }
+
+    public static void error(String strMessage, Object... params) {
+        logger.error(strMessage, params);
+    }
+
+    public static void error(Supplier<String> messageSupplier) {
+        if (logger.isErrorEnabled()) {
+            logger.error(messageSupplier.get());
+        }
+    }
+
     public static void  fatal(String strMessage) {
         logger.fatal(strMessage);
     }
 
+    public static void fatal(String strMessage, Object... params) {
+        logger.fatal(strMessage, params);
+    }
+
     public static void debug(String strMessage) {
         logger.debug(strMessage);
     }
+
+    public static void debug(String strMessage, Object param) {
+        logger.debug(strMessage, param);
+    }
+
+    public static void debug(String strMessage, Object param1, Object param2) {
+        logger.debug(strMessage, param1, param2);
+    }
+
+    public static void debug(String strMessage, Object... params) {
+        logger.debug(strMessage, params);
+    }
+
+    public static void debug(Supplier<String> messageSupplier) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(messageSupplier.get());
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package utils;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders test methods longest first by {@link DurationHistory}, so slow work starts first on parallel threads
+ * and the run does not end with one slow class running alone.
+ * For parallel="methods" test methods are ordered individually, otherwise classes are ordered and methods
+ * of a class keep their order. Work without history is estimated as average of known work.
+ * Enabled by "schedule.longest.first", register in testng.xml as listener.
+ */
+public class LongestFirstInterceptor implements IMethodInterceptor {
+
+    private static final Configuration configuration = Configuration.instance();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext iTestContext) {
+        if (!configuration.getScheduleLongestFirst() || methods.size() < 2) {
+            return methods;
+        }
+        final boolean byMethod = iTestContext.getCurrentXmlTest().getParallel() == XmlSuite.ParallelMode.METHODS;
+        return byMethod ? orderMethods(methods) : orderClasses(methods);
+    }
+
+    private static List<IMethodInstance> orderMethods(List<IMethodInstance> methods) {
+        final Map<IMethodInstance, Long> durations = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            durations.put(method, DurationHistory.getMethodDuration(
+                    method.getMethod().getRealClass().getName(), method.getMethod().getMethodName()));
+        }
+        final List<IMethodInstance> ordered = longestFirst(durations);
+        Log.debug("SCH: {} test methods of {} are ordered longest first", ordered.size(),
+                ordered.get(0).getMethod().getXmlTest().getName());
+        return ordered;
+    }
+
+    private static List<IMethodInstance> orderClasses(List<IMethodInstance> methods) {
+        final Map<Class<?>, List<IMethodInstance>> classMethods = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            classMethods.computeIfAbsent(method.getMethod().getRealClass(), key -> new ArrayList<>()).add(method);
+        }
+        if (classMethods.size() < 2) {
+            return methods;
+        }
+        final Map<Class<?>, Long> durations = new LinkedHashMap<>();
+        for (Class<?> testClass : classMethods.keySet()) {
+            durations.put(testClass, DurationHistory.getClassDuration(testClass.getName()));
+        }
+        final List<Class<?>> classes = longestFirst(durations);
+        final List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+        for (Class<?> testClass : classes) {
+            ordered.addAll(classMethods.get(testClass));
+        }
+        Log.debug("SCH: Test classes are ordered longest first: {}", classes);
+        return ordered;
+    }
+
+    /**
+     * Order work longest first, work without history (negative duration) is estimated as average of known work.
+     * Sort is stable, so work without difference keeps its order, work stays in given order when
+     * no duration is known.
+     *
+     * @param durations durations in milliseconds by work in declared order, -1 for unknown duration
+     * @return work ordered longest first
+     */
+    public static <T> List<T> longestFirst(Map<T, Long> durations) {
+        final List<T> ordered = new ArrayList<>(durations.keySet());
+        long total = 0;
+        int known = 0;
+        for (long duration : durations.values()) {
+            if (duration >= 0) {
+                total += duration;
+                known++;
+            }
+        }
+        if (known == 0) {
+            return ordered;
+        }
+        final long average = total / known;
+        ordered.sort(Comparator.comparing((T work) -> durations.get(work) >= 0 ? durations.get(work) : average,
+                Comparator.reverseOrder()));
+        return ordered;
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits test classes of the suite into "shard.count" shards with balanced expected duration
+ * and keeps only classes of shard "shard.index", so shards can run in separate JVMs or on separate CI agents.
+ * Classes are assigned longest first to the least loaded shard, durations come from "shard.history.file"
+ * (see {@link DurationHistory}), classes without history get average of known ones. Plan depends on suite
+ * and that file only, so every shard computes the same plan independently when all shards get the same file.
+ * Local "duration.history.file" is not used, it differs between agents. Without shard history classes
+ * are split by name. Plan fingerprint is logged, so plans of shards can be compared.
+ * Generated suite of the shard is written to "target/shards/testng-shard-N.xml".
+ * Register in testng.xml as listener, does nothing while "shard.count" is 1.
+ */
+public class ShardPlanner implements IAlterSuiteListener {
+
+    private static final String SHARD_SUITE_DIRECTORY = "target/shards";
+
+    private static final Configuration configuration = Configuration.instance();
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        final int shardCount = configuration.getShardCount();
+        final int shardIndex = configuration.getShardIndex();
+        if (shardCount <= 1) {
+            return;
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalStateException("\"shard.index\" should be from 0 to " + (shardCount - 1));
+        }
+        for (XmlSuite suite : suites) {
+            keepShard(suite, shardIndex, shardCount);
+        }
+    }
+
+    /**
+     * Assign test classes to shards.
+     *
+     * @param classDurations expected duration of every class, -1 when unknown
+     * @param shardCount     number of shards
+     * @return classes of every shard, in the order of assignment (longest first)
+     */
+    public static <T> List<List<T>> plan(Map<T, Long> classDurations, int shardCount) {
+        long total = 0;
+        int known = 0;
+        for (long duration : classDurations.values()) {
+            if (duration >= 0) {
+                total += duration;
+                known++;
+            }
+        }
+        // Without any history shards are balanced by class count
+        final long unknownDuration = known == 0 ? 1 : Math.max(1, total / known);
+
+        final List<Map.Entry<T, Long>> units = new ArrayList<>();
+        for (Map.Entry<T, Long> entry : classDurations.entrySet()) {
+            units.add(new AbstractMap.SimpleEntry<>(entry.getKey(),
+                    entry.getValue() >= 0 ? entry.getValue() : unknownDuration));
+        }
+        units.sort(Comparator.<Map.Entry<T, Long>, Long>comparing(Map.Entry::getValue).reversed()
+                .thenComparing(entry -> String.valueOf(entry.getKey())));
+
+        final List<List<T>> shards = new ArrayList<>(shardCount);
+        final long[] loads = new long[shardCount];
+        for (int index = 0; index < shardCount; index++) {
+            shards.add(new ArrayList<>());
+        }
+        for (Map.Entry<T, Long> unit : units) {
+            int lightest = 0;
+            for (int index = 1; index < shardCount; index++) {
+                if (loads[index] < loads[lightest]) {
+                    lightest = index;
+                }
+            }
+            shards.get(lightest).add(unit.getKey());
+            loads[lightest] += unit.getValue();
+        }
+        return shards;
+    }
+
+    private static void keepShard(XmlSuite suite, int shardIndex, int shardCount) {
+        // The same class can be listed in several tests, every listing is a separate unit
+        final Map<String, Long> history = readShardHistory();
+        final Map<String, Long> classDurations = new LinkedHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            if (!test.getXmlPackages().isEmpty()) {
+                Log.warn("SP: Packages of test {} are not sharded, they run in shard 0", test.getName());
+            }
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                classDurations.put(unitKey(test, xmlClass),
+                        history.getOrDefault(DurationHistory.classKey(xmlClass.getName()), -1L));
+            }
+        }
+        final List<List<String>> shards = plan(classDurations, shardCount);
+        final List<String> shardUnits = shards.get(shardIndex);
+
+        final List<XmlTest> shardTests = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            List<XmlClass> shardClasses = new ArrayList<>();
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                if (shardUnits.contains(unitKey(test, xmlClass))) {
+                    shardClasses.add(xmlClass);
+                }
+            }
+            test.setXmlClasses(shardClasses);
+            if (shardIndex != 0) {
+                test.setXmlPackages(new ArrayList<>());
+            }
+            if (!shardClasses.isEmpty() || !test.getXmlPackages().isEmpty()) {
+                shardTests.add(test);
+            }
+        }
+        suite.setTests(shardTests);
+        suite.setName(suite.getName() + " [shard " + shardIndex + " of " + shardCount + "]");
+        Log.info("SP: Shard {} of {} runs {} of {} test classes, plan {}", shardIndex, shardCount,
+                shardUnits.size(), classDurations.size(), Integer.toHexString(shards.hashCode()));
+        writeSuite(suite, shardIndex);
+    }
+
+    /**
+     * History all shards plan from, empty when "shard.history.file" is not set or can not be read,
+     * so classes are split by name.
+     */
+    private static Map<String, Long> readShardHistory() {
+        final String strHistoryFile = configuration.getShardHistoryFile();
+        if (strHistoryFile == null) {
+            Log.info("SP: \"shard.history.file\" is not set, test classes are split by name");
+            return Collections.emptyMap();
+        }
+        final Path historyFile = Paths.get(strHistoryFile);
+        if (!Files.exists(historyFile)) {
+            Log.warn("SP: Shard history {} does not exist, test classes are split by name", historyFile);
+            return Collections.emptyMap();
+        }
+        try {
+            return DurationHistory.read(historyFile);
+        } catch (IOException e) {
+            Log.warn("SP: Shard history {} can not be read, test classes are split by name: {}",
+                    historyFile, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private static String unitKey(XmlTest test, XmlClass xmlClass) {
+        return test.getName() + "/" + xmlClass.getName();
+    }
+
+    private static void writeSuite(XmlSuite suite, int shardIndex) {
+        try {
+            Path suiteFile = Paths.get(SHARD_SUITE_DIRECTORY, "testng-shard-" + shardIndex + ".xml").toAbsolutePath();
+            Files.createDirectories(suiteFile.getParent());
+            Files.write(suiteFile, suite.toXml().getBytes(StandardCharsets.UTF_8));
+            Log.info("SP: Suite of shard {} is written to {}", shardIndex, suiteFile);
+        } catch (IOException e) {
+            Log.error("SP: Problem during shard suite writing: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package utils;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which Allure {@code @Step} invocations are recorded into the report.
+ * "step.level" is one of:
+ * all - every step (default);
+ * actions - steps of concrete page objects only, BasePage helpers are not recorded;
+ * sampled - first and then every "step.sample.every"-th invocation of each step;
+ * none - no steps.
+ * "step.packages" optionally restricts recorded steps to classes with provided comma separated name prefixes.
+ * Decision is computed once per step method, so skipped steps cost a map lookup only.
+ */
+public final class StepFilter {
+
+    private static final String BASE_PAGE_PACKAGE = "pages.basePage.";
+
+    private static final Configuration configuration = Configuration.instance();
+    private static final String level = configuration.getStepLevel().trim().toLowerCase();
+    private static final List<String> packages = parsePackages(configuration.getStepPackages());
+    private static final long sampleEvery = Math.max(1, configuration.getStepSampleEvery());
+    private static final Map<JoinPoint.StaticPart, Decision> decisions = new ConcurrentHashMap<>();
+
+    static {
+        if (!Arrays.asList(Configuration.STEP_LEVEL_ALL, Configuration.STEP_LEVEL_ACTIONS,
+                Configuration.STEP_LEVEL_SAMPLED, Configuration.STEP_LEVEL_NONE).contains(level)) {
+            Log.warn("SF: Unknown step level '{}', all steps are recorded", level);
+        }
+    }
+
+    private StepFilter() {
+        // Empty constructor
+    }
+
+    /**
+     * Whether current invocation of the step should be recorded.
+     *
+     * @param staticPart step method join point
+     * @return true when step should be reported to Allure
+     */
+    public static boolean shouldRecord(JoinPoint.StaticPart staticPart) {
+        return decisions.computeIfAbsent(staticPart, StepFilter::decide).record();
+    }
+
+    private static Decision decide(JoinPoint.StaticPart staticPart) {
+        String className = staticPart.getSignature().getDeclaringTypeName();
+        boolean recorded;
+        switch (level) {
+            case Configuration.STEP_LEVEL_NONE:
+                recorded = false;
+                break;
+            case Configuration.STEP_LEVEL_ACTIONS:
+                recorded = !className.startsWith(BASE_PAGE_PACKAGE);
+                break;
+            default:
+                recorded = true;
+                break;
+        }
+        if (!packages.isEmpty()) {
+            recorded = recorded && packages.stream().anyMatch(className::startsWith);
+        }
+        return new Decision(recorded, Configuration.STEP_LEVEL_SAMPLED.equals(level));
+    }
+
+    private static List<String> parsePackages(String strPackages) {
+        if (strPackages == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(strPackages.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static class Decision {
+        private final boolean recorded;
+        private final boolean sampled;
+        private final AtomicLong invocations = new AtomicLong();
+
+        private Decision(boolean recorded, boolean sampled) {
+            this.recorded = recorded;
+            this.sampled = sampled;
+        }
+
+        private boolean record() {
+            return recorded && (!sampled || invocations.getAndIncrement() % sampleEvery == 0);
+        }
+    }
+}
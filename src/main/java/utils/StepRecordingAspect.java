@@ -0,0 +1,94 @@
+package utils;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.Step;
+import io.qameta.allure.aspects.StepsAspects;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.util.AspectUtils;
+import io.qameta.allure.util.ResultsUtils;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Replacement of Allure StepsAspects (excluded in META-INF/aop.xml) which reports only steps
+ * accepted by {@link StepFilter}. Skipped steps do not build step name, parameters and UUID
+ * and do not touch Allure lifecycle. Recorded steps are reported exactly as StepsAspects does.
+ */
+@Aspect
+public class StepRecordingAspect {
+
+    private static final ThreadLocal<RecordedFlags> recordedFlags = ThreadLocal.withInitial(RecordedFlags::new);
+
+    @Pointcut("@annotation(io.qameta.allure.Step)")
+    public void withStepAnnotation() {
+        // Pointcut
+    }
+
+    @Pointcut("execution(* *(..))")
+    public void anyMethod() {
+        // Pointcut
+    }
+
+    @Before("anyMethod() && withStepAnnotation()")
+    public void stepStart(JoinPoint joinPoint) {
+        boolean recorded = StepFilter.shouldRecord(joinPoint.getStaticPart());
+        recordedFlags.get().push(recorded);
+        if (!recorded) {
+            return;
+        }
+        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
+        Step step = methodSignature.getMethod().getAnnotation(Step.class);
+        StepResult result = new StepResult()
+                .setName(AspectUtils.getName(step.value(), methodSignature, joinPoint.getArgs()))
+                .setParameters(AspectUtils.getParameters(methodSignature, joinPoint.getArgs()));
+        getLifecycle().startStep(UUID.randomUUID().toString(), result);
+    }
+
+    @AfterThrowing(pointcut = "anyMethod() && withStepAnnotation()", throwing = "e")
+    public void stepFailed(Throwable e) {
+        if (recordedFlags.get().pop()) {
+            getLifecycle().updateStep(result -> result
+                    .setStatus(ResultsUtils.getStatus(e).orElse(Status.BROKEN))
+                    .setStatusDetails(ResultsUtils.getStatusDetails(e).orElse(null)));
+            getLifecycle().stopStep();
+        }
+    }
+
+    @AfterReturning(pointcut = "anyMethod() && withStepAnnotation()")
+    public void stepStop() {
+        if (recordedFlags.get().pop()) {
+            getLifecycle().updateStep(result -> result.setStatus(Status.PASSED));
+            getLifecycle().stopStep();
+        }
+    }
+
+    private static AllureLifecycle getLifecycle() {
+        // Keep single lifecycle source with Allure, tests may replace it via StepsAspects.setLifecycle
+        return StepsAspects.getLifecycle();
+    }
+
+    private static class RecordedFlags {
+        private boolean[] values = new boolean[16];
+        private int size;
+
+        private void push(boolean value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private boolean pop() {
+            return size > 0 && values[--size];
+        }
+    }
+}
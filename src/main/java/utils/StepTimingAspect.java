@@ -0,0 +1,92 @@
+package utils;
+
+import factory.driver.CommandMetrics;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every Allure {@code @Step} method and records the duration into {@link StepTimings},
+ * and tells {@link CommandMetrics} which page-object method issues WebDriver commands.
+ * Woven by load-time weaving (aspectjweaver javaagent in surefire configuration, see META-INF/aop.xml).
+ * Like Allure StepsAspects it uses before/after advices only, start times of nested steps
+ * are kept in a per-thread stack.
+ */
+@Aspect
+public class StepTimingAspect {
+
+    private static final Map<JoinPoint.StaticPart, String> stepNames = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StartTimes> startTimes = ThreadLocal.withInitial(StartTimes::new);
+
+    @Pointcut("@annotation(io.qameta.allure.Step)")
+    public void withStepAnnotation() {
+        // Pointcut
+    }
+
+    @Pointcut("execution(* *(..))")
+    public void anyMethod() {
+        // Pointcut
+    }
+
+    @Before("anyMethod() && withStepAnnotation()")
+    public void stepStart(JoinPoint.StaticPart staticPart) {
+        if (StepTimings.isEnabled()) {
+            startTimes.get().push(System.nanoTime());
+        }
+        if (CommandMetrics.isEnabled()) {
+            CommandMetrics.enterStep(staticPart.getSignature().getDeclaringType(), stepName(staticPart));
+        }
+    }
+
+    @AfterReturning(pointcut = "anyMethod() && withStepAnnotation()")
+    public void stepStop(JoinPoint.StaticPart staticPart) {
+        record(staticPart);
+    }
+
+    @AfterThrowing(pointcut = "anyMethod() && withStepAnnotation()")
+    public void stepFailed(JoinPoint.StaticPart staticPart) {
+        record(staticPart);
+    }
+
+    private static void record(JoinPoint.StaticPart staticPart) {
+        if (CommandMetrics.isEnabled()) {
+            CommandMetrics.exitStep();
+        }
+        StartTimes stack = startTimes.get();
+        if (StepTimings.isEnabled() && !stack.isEmpty()) {
+            StepTimings.record(stepName(staticPart), System.nanoTime() - stack.pop());
+        }
+    }
+
+    private static String stepName(JoinPoint.StaticPart staticPart) {
+        return stepNames.computeIfAbsent(staticPart, part ->
+                part.getSignature().getDeclaringType().getSimpleName() + "." + part.getSignature().getName());
+    }
+
+    private static class StartTimes {
+        private long[] values = new long[16];
+        private int size;
+
+        private void push(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long pop() {
+            return values[--size];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-wide durations of Allure {@code @Step} methods, aggregated per "Class.method".
+ * Durations of nested steps are included into duration of enclosing step.
+ */
+public final class StepTimings {
+
+    private static final Configuration configuration = Configuration.instance();
+    private static final Map<String, LatencyHistogram> stepHistograms = new ConcurrentHashMap<>();
+
+    private StepTimings() {
+        // Empty constructor
+    }
+
+    public static boolean isEnabled() {
+        return configuration.getStepTimingEnabled();
+    }
+
+    /**
+     * Record single step invocation.
+     *
+     * @param strStepName   step name in "Class.method" format
+     * @param durationNanos duration in nanoseconds
+     */
+    public static void record(String strStepName, long durationNanos) {
+        stepHistograms.computeIfAbsent(strStepName, key -> new LatencyHistogram()).record(durationNanos);
+    }
+
+    /**
+     * Write report sorted by total time into "step.timing.file".
+     * Does nothing when no step was recorded.
+     */
+    public static synchronized void writeReport() {
+        if (stepHistograms.isEmpty()) {
+            return;
+        }
+        try {
+            Path reportFile = Paths.get(configuration.getStepTimingFile()).toAbsolutePath();
+            Files.createDirectories(reportFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                LatencyHistogram.writeReport(writer, "Allure steps", stepHistograms);
+            }
+            Log.info("ST: Step timing report is written to {}", reportFile);
+        } catch (IOException e) {
+            Log.error("ST: Problem during step timing report writing: {}", e.getMessage());
+        }
+    }
+}
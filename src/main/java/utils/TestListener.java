@@ -1,66 +1,139 @@
 package utils;
 
-import io.qameta.allure.Attachment;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
+import factory.driver.CommandMetrics;
+import factory.driver.DriverContext;
+import factory.driver.WebDriverFactory;
 import org.openqa.selenium.WebDriver;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
+import replay.ReplayServer;
 
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener, IInvokedMethodListener {
+
+    private static final long ARTIFACTS_COMPLETION_TIMEOUT = 60;
 
     @Override
     public void onTestStart(ITestResult iTestResult) {
-        Log.info("## " + getTestMethodName(iTestResult) + " test method started.");
+        CommandMetrics.setCurrentTest(getTestName(iTestResult));
+        Log.setTestContext(getTestName(iTestResult));
+        TestLogs.start(getTestName(iTestResult));
+        Log.info("## {} test method started.", getTestMethodName(iTestResult));
     }
 
     @Override
     public void onTestSuccess(ITestResult iTestResult) {
-        Log.info("## " + getTestMethodName(iTestResult) + " test method succeed.");
+        Log.info("## {} test method succeed.", getTestMethodName(iTestResult));
+        CommandMetrics.setCurrentTest(null);
+        TestLogs.finish();
+        Log.clearTestContext();
     }
 
     @Override
     public void onTestFailure(ITestResult iTestResult) {
-        Log.info("## " + getTestMethodName(iTestResult) + " test method failed.");
+        Log.info("## {} test method failed.", getTestMethodName(iTestResult));
+        CommandMetrics.setCurrentTest(null);
+        TestLogs.finish();
+        Log.clearTestContext();
     }
 
     @Override
     public void onTestSkipped(ITestResult iTestResult) {
-        Log.info("## " + getTestMethodName(iTestResult) + " test method skipped.");
+        Log.info("## {} test method skipped.", getTestMethodName(iTestResult));
+        CommandMetrics.setCurrentTest(null);
+        TestLogs.finish();
+        Log.clearTestContext();
     }
 
     @Override
     public void onTestFailedButWithinSuccessPercentage(ITestResult iTestResult) {
-        Log.info("## " + getTestMethodName(iTestResult) + " test method failed within success %.");
+        Log.info("## {} test method failed within success %.", getTestMethodName(iTestResult));
+        CommandMetrics.setCurrentTest(null);
+        TestLogs.finish();
+        Log.clearTestContext();
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod iInvokedMethod, ITestResult iTestResult) {
+        // Nothing to do before invocation
+    }
+
+    /**
+     * Failure artifacts and test log attachment are registered here, as Allure test case is still running
+     * (it is stopped by Allure listener in onTestFailure).
+     */
+    @Override
+    public void afterInvocation(IInvokedMethod iInvokedMethod, ITestResult iTestResult) {
+        recordDuration(iInvokedMethod, iTestResult);
+        if (!iInvokedMethod.isTestMethod()) {
+            return;
+        }
+        if (iTestResult.getStatus() != ITestResult.FAILURE) {
+            return;
+        }
+        // Log is finished in onTest* callbacks, so their result line is part of it
+        TestLogs.attachOnFinish();
+        if (!FailureArtifacts.isEnabled()) {
+            return;
+        }
+        WebDriver webDriver = DriverContext.current();
+        if (webDriver == null) {
+            Log.info("TL: ## {} has no WebDriver, failure artifacts are not captured", getTestMethodName(iTestResult));
+            return;
+        }
+        FailureArtifacts.capture(webDriver, getTestName(iTestResult));
     }
 
     @Override
     public void onStart(ITestContext iTestContext) {
-        Log.info("#### " + iTestContext.getName() + " test classes started.");
+        Log.info("#### {} test classes started.", iTestContext.getName());
     }
 
     @Override
     public void onFinish(ITestContext iTestContext) {
-        Log.info("#### " + iTestContext.getName() + " test classes finished.");
+        Log.info("#### {} test classes finished.", iTestContext.getName());
+    }
+
+    @Override
+    public void onStart(ISuite iSuite) {
+        ReplayServer.startIfEnabled();
+        WebDriverFactory.prewarmSessions();
+        Log.info("###### {} suite started.", iSuite.getName());
+    }
+
+    @Override
+    public void onFinish(ISuite iSuite) {
+        WebDriverFactory.discardPrewarmedSessions();
+        FailureArtifacts.awaitCompletion(ARTIFACTS_COMPLETION_TIMEOUT);
+        TestLogs.awaitCompletion(ARTIFACTS_COMPLETION_TIMEOUT);
+        WebDriverFactory.exportCommandMetrics();
+        StepTimings.writeReport();
+        DurationHistory.writeHistory();
+        ReplayServer.stopIfRunning();
+        Log.info("###### {} suite finished.", iSuite.getName());
+    }
+
+    /**
+     * Skipped methods are not recorded, their duration says nothing about the next run.
+     */
+    private static void recordDuration(IInvokedMethod iInvokedMethod, ITestResult iTestResult) {
+        if (!DurationHistory.isEnabled() || iTestResult.getStatus() == ITestResult.SKIP
+                || iTestResult.getTestClass() == null) {
+            return;
+        }
+        DurationHistory.record(iTestResult.getTestClass().getRealClass().getName(), getTestMethodName(iTestResult),
+                iInvokedMethod.isTestMethod(), iTestResult.getEndMillis() - iTestResult.getStartMillis());
+    }
+
+    private static String getTestName(ITestResult result) {
+        return result.getTestClass().getRealClass().getSimpleName() + "." + getTestMethodName(result);
     }
 
     private static String getTestMethodName(ITestResult result) {
         return result.getMethod().getConstructorOrMethod().getName();
     }
-
-//    @Attachment(value = "Page screenshot", type = "image/png")
-//    public byte[] saveScreenshotPNG(WebDriver webDriver) {
-//        return ((TakesScreenshot) webDriver).getScreenshotAs(OutputType.BYTES);
-//    }
-//
-//    public void takeScreenshot(ITestResult iTestResult, String strTestPhase) {
-//        Object testClass = iTestResult.getInstance();
-//        Object webDriver = ((BaseTest) testClass).driver.get();
-//        if (webDriver instanceof WebDriver) {
-//            saveScreenshotPNG((WebDriver) webDriver);
-//        } else {
-//            Log.error("TL: ## " + getTestMethodName(iTestResult) + " " + strTestPhase + ", something went wrong during get of the WebDriver from Test Result");
-//        }
-//    }
 }
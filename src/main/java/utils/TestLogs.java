@@ -0,0 +1,150 @@
+package utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.FileAppender;
+import org.apache.logging.log4j.core.appender.routing.RoutingAppender;
+import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
+import org.apache.logging.log4j.core.config.AppenderControl;
+import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per test log files written by "TestRouting" appender of log4j2.xml.
+ * Every test invocation gets its own buffered file "Class.method-N.log" while "test.log.routing" is enabled.
+ * When test ends its file is closed in background after a short delay, which lets async logger
+ * handle the last messages of the test, and, for failed test, attached to the Allure test case.
+ */
+public final class TestLogs {
+
+    private static final String ROUTING_APPENDER = "TestRouting";
+    private static final String LOG_KEY = "testLogKey";
+    // Async logger handles queued messages within milliseconds, delay keeps late messages in the test log
+    private static final long CLOSE_DELAY_MILLIS = 1000;
+
+    private static final Configuration configuration = Configuration.instance();
+    private static final AtomicInteger invocationNumber = new AtomicInteger();
+    private static final ThreadLocal<String> pendingAttachment = new ThreadLocal<>();
+    private static final ScheduledExecutorService closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "test-log-closer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TestLogs() {
+        // Empty constructor
+    }
+
+    /**
+     * Route messages of the current thread into a new log file of provided test.
+     *
+     * @param strTestName test name
+     */
+    public static void start(String strTestName) {
+        if (configuration.getTestLogRouting()) {
+            ThreadContext.put(LOG_KEY, strTestName + "-" + invocationNumber.incrementAndGet());
+        }
+    }
+
+    /**
+     * Attach log of the current thread to the running Allure test case when it is finished.
+     * Should be called while Allure test case is still running, i.e. before onTestFailure.
+     */
+    public static void attachOnFinish() {
+        final AllureLifecycle lifecycle = Allure.getLifecycle();
+        if (ThreadContext.get(LOG_KEY) != null && lifecycle.getCurrentTestCase().isPresent()) {
+            pendingAttachment.set(lifecycle.prepareAttachment("Test log", "text/plain", "log"));
+        }
+    }
+
+    /**
+     * Stop routing messages of the current thread and close test log file.
+     * Does nothing when test log of the current thread is already finished.
+     */
+    public static void finish() {
+        final String key = ThreadContext.get(LOG_KEY);
+        final String source = pendingAttachment.get();
+        pendingAttachment.remove();
+        if (key == null) {
+            return;
+        }
+        ThreadContext.remove(LOG_KEY);
+        final AllureLifecycle lifecycle = Allure.getLifecycle();
+        closer.schedule(() -> close(key, lifecycle, source), CLOSE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wait till logs of finished tests are closed and attached.
+     * Async logger queue is drained once here, not for every test.
+     *
+     * @param seconds maximum time to wait
+     */
+    public static void awaitCompletion(long seconds) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        awaitAsyncLogging((LoggerContext) LogManager.getContext(false), deadline);
+        try {
+            // Runs after all closes scheduled so far, tasks with equal delay run in submission order
+            closer.schedule(() -> { }, CLOSE_DELAY_MILLIS, TimeUnit.MILLISECONDS)
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.warn("TLG: Test logs are still being closed after {} s", seconds);
+        }
+    }
+
+    private static void close(String key, AllureLifecycle lifecycle, String strSource) {
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        RoutingAppender routing = context.getConfiguration().getAppender(ROUTING_APPENDER);
+        if (routing == null) {
+            return;
+        }
+        AppenderControl control = routing.getAppenders().get(key);
+        if (control == null) {
+            return;
+        }
+        Appender appender = control.getAppender();
+        // Stopping appender flushes buffer and closes file
+        routing.deleteAppender(key);
+        if (strSource != null && appender instanceof FileAppender) {
+            try (InputStream input = Files.newInputStream(Paths.get(((FileAppender) appender).getFileName()))) {
+                lifecycle.writeAttachment(strSource, input);
+            } catch (IOException e) {
+                Log.error("TLG: Problem during attaching of test log {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wait till async root logger handled all queued messages, so test logs are complete.
+     */
+    private static void awaitAsyncLogging(LoggerContext context, long deadlineNanos) {
+        if (!(context.getConfiguration().getRootLogger() instanceof AsyncLoggerConfig)) {
+            return;
+        }
+        RingBufferAdmin ringBuffer = context.getConfiguration().getAsyncLoggerConfigDelegate()
+                .createRingBufferAdmin(context.getName(), "");
+        while (ringBuffer.getRemainingCapacity() < ringBuffer.getBufferSize() && System.nanoTime() < deadlineNanos) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -1,43 +1,185 @@
 package baseTest;
 
+import factory.driver.DriverContext;
 import factory.driver.WebDriverFactory;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.PageFactory;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
 import pages.authenticationPage.AuthenticationPage;
+import pages.basePage.BasePage;
 import pages.homePage.HomePage;
 import pages.shoppingCartPage.ShoppingCartPage;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class BaseTest {
 
-    public ThreadLocal<WebDriver> driver;
+public class BaseTest {
 
-    public ShoppingCartPage shoppingCartPage;
-    public AuthenticationPage authenticationPage;
-    public HomePage homePage;
+    // Drivers leased by this test class instance, every leased driver is either idle or busy
+    private final Set<WebDriver> leasedDrivers = ConcurrentHashMap.newKeySet();
+    // Leased drivers which no test method uses right now, most recently returned first
+    private final Deque<WebDriver> idleDrivers = new ArrayDeque<>();
+    // Leased drivers used by running test methods
+    private final Set<WebDriver> busyDrivers = new HashSet<>();
+    private final Map<WebDriver, Map<Class<?>, BasePage>> pages = new ConcurrentHashMap<>();
+    private int pendingLeases;
 
+    /**
+     * WebDriver confined to the current thread.
+     * Test method gets driver of the previous method which ran on the same thread when it is idle,
+     * otherwise driver returned by other thread, so the class leases no more sessions than methods run at once.
+     *
+     * @return WebDriver of the current thread
+     */
     public WebDriver webDriver() {
-        return driver.get();
+        WebDriver current = DriverContext.get(this);
+        if (current != null && leasedDrivers.contains(current)) {
+            return current;
+        }
+        // Driver leased outside of test method (class set up) stays available for methods of any thread
+        current = takeDriver();
+        synchronized (idleDrivers) {
+            busyDrivers.remove(current);
+            idleDrivers.addFirst(current);
+        }
+        DriverContext.bind(this, current);
+        return current;
+    }
+
+    public ShoppingCartPage shoppingCartPage() {
+        return page(ShoppingCartPage.class);
+    }
+
+    public AuthenticationPage authenticationPage() {
+        return page(AuthenticationPage.class);
+    }
+
+    public HomePage homePage() {
+        return page(HomePage.class);
+    }
+
+    /**
+     * Page object bound to the WebDriver of the current thread.
+     *
+     * @param pageClass page object class
+     * @return page object initialised with current thread WebDriver
+     */
+    protected <T extends BasePage> T page(Class<T> pageClass) {
+        final WebDriver currentDriver = webDriver();
+        return pageClass.cast(pages
+                .computeIfAbsent(currentDriver, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pageClass, key -> PageFactory.initElements(currentDriver, pageClass)));
     }
 
-    @BeforeClass(alwaysRun = true, description = "Before method")
+    /**
+     * @return number of drivers leased by this test class instance
+     */
+    protected int getLeasedDriverCount() {
+        return leasedDrivers.size();
+    }
+
+    @BeforeClass(alwaysRun = true, description = "Before class")
     public void warmUp() {
-        driver = new ThreadLocal<>();
-        driver.set(WebDriverFactory.createWebDriver());
+        webDriver();
+    }
 
-        // Pages initialisation
-        shoppingCartPage = PageFactory.initElements(webDriver(), ShoppingCartPage.class);
-        homePage = PageFactory.initElements(webDriver(), HomePage.class);
-        authenticationPage = PageFactory.initElements(webDriver(), AuthenticationPage.class);
+    @BeforeMethod(alwaysRun = true, description = "Before method")
+    public void bindDriver() {
+        final WebDriver current = DriverContext.get(this);
+        synchronized (idleDrivers) {
+            // Driver of the previous method of this thread keeps its browser state
+            if (current != null && idleDrivers.remove(current)) {
+                busyDrivers.add(current);
+                return;
+            }
+        }
+        DriverContext.bind(this, takeDriver());
+    }
 
+    /**
+     * Make driver of finished method available to other methods of this class, session stays leased
+     * till the class finishes. Broken session (infrastructure error, failed liveness probe) is recycled instead.
+     */
+    @AfterMethod(alwaysRun = true, description = "After method")
+    public void returnDriver() {
+        final WebDriver current = DriverContext.get(this);
+        synchronized (idleDrivers) {
+            if (current == null || !busyDrivers.remove(current)) {
+                return;
+            }
+        }
+        final boolean recycled = WebDriverFactory.recycleIfUnhealthy(current);
+        synchronized (idleDrivers) {
+            if (recycled) {
+                leasedDrivers.remove(current);
+                pages.remove(current);
+                DriverContext.unbind(this);
+            } else {
+                idleDrivers.addFirst(current);
+            }
+            idleDrivers.notifyAll();
+        }
     }
 
-    @AfterClass(alwaysRun = true, description = "After method")
+    @AfterClass(alwaysRun = true, description = "After class")
     public void tearDown() {
-        if (driver.get() != null) {
-            driver.get().quit();
+        DriverContext.unbind(this);
+        for (WebDriver leasedDriver : leasedDrivers) {
+            WebDriverFactory.releaseWebDriver(leasedDriver);
+        }
+        synchronized (idleDrivers) {
+            leasedDrivers.clear();
+            idleDrivers.clear();
+            busyDrivers.clear();
+        }
+        pages.clear();
+    }
+
+    /**
+     * Take idle driver or lease new one, waits for idle driver when the class holds as many sessions
+     * as the pool allows, so it does not wait for a pool lease which only this class could give back.
+     *
+     * @return driver marked as busy
+     */
+    private WebDriver takeDriver() {
+        synchronized (idleDrivers) {
+            while (idleDrivers.isEmpty()
+                    && leasedDrivers.size() + pendingLeases >= WebDriverFactory.getSessionLimit()) {
+                try {
+                    idleDrivers.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for idle WebDriver");
+                }
+            }
+            final WebDriver idleDriver = idleDrivers.pollFirst();
+            if (idleDriver != null) {
+                busyDrivers.add(idleDriver);
+                return idleDriver;
+            }
+            pendingLeases++;
+        }
+        WebDriver driver = null;
+        try {
+            driver = WebDriverFactory.acquireWebDriver();
+            return driver;
+        } finally {
+            synchronized (idleDrivers) {
+                pendingLeases--;
+                if (driver != null) {
+                    leasedDrivers.add(driver);
+                    busyDrivers.add(driver);
+                }
+                idleDrivers.notifyAll();
+            }
         }
     }
 }
@@ -0,0 +1,53 @@
+package baseTest;
+
+import io.qameta.allure.Step;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import pages.basePage.BasePage;
+
+import java.net.URL;
+
+public class FixturePage extends BasePage {
+
+    public String strPageTitle = "Fixture - My Store";
+
+    @FindBy(id = "header_logo")
+    public WebElement headerLogo;
+
+    @FindBy(id = "owner")
+    public WebElement ownerInput;
+
+    public FixturePage(WebDriver webDriver) {
+        super(webDriver);
+    }
+
+    @Step
+    public void openFixture(String strQuery) {
+        openFixtureFile("index.html", strQuery);
+    }
+
+    @Step
+    public void openFixtureFile(String strFileName, String strQuery) {
+        URL fixtureURL = FixturePage.class.getResource("/fixtures/" + strFileName);
+        open(fixtureURL.toString() + strQuery, false);
+    }
+
+    @Step
+    public void fillOwner(String strOwner) {
+        fillText(ownerInput, strOwner);
+    }
+
+    @Step
+    @Override
+    protected void load() {
+        openFixture("");
+    }
+
+    @Step
+    @Override
+    public void isLoaded() throws Error {
+        checkPageTitle(strPageTitle);
+        waitElementToBeVisible(headerLogo);
+    }
+}
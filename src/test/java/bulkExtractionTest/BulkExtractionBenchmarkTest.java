@@ -0,0 +1,73 @@
+package bulkExtractionTest;
+
+import baseTest.BaseTest;
+import io.qameta.allure.Description;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import baseTest.FixturePage;
+import pages.basePage.ElementSnapshot;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class BulkExtractionBenchmarkTest extends BaseTest {
+
+    private static final int ROUNDS = 3;
+
+    @BeforeClass()
+    @Description("Open calendar fixture")
+    public void setUp() {
+        page(FixturePage.class).openFixtureFile("calendar.html", "");
+        page(FixturePage.class).waitForPageReady();
+    }
+
+    @Test(description = "Bulk extraction matches per element reads")
+    @Description("Bulk extraction returns the same texts, attributes and visibility as per element commands")
+    public void bulkExtractionMatchesPerElementReadsTest() {
+        List<WebElement> options = webDriver().findElements(By.cssSelector("#countries option"));
+        List<ElementSnapshot> snapshots = page(FixturePage.class).snapshotElements(options, "value");
+
+        Assert.assertEquals(snapshots.size(), options.size(), "Snapshot count is incorrect");
+        for (int index = 0; index < options.size(); index += 25) {
+            Assert.assertEquals(snapshots.get(index).getText(), options.get(index).getText(), "Option text differs");
+            Assert.assertEquals(snapshots.get(index).getAttribute("value"), options.get(index).getAttribute("value"),
+                    "Option value differs");
+        }
+        Assert.assertEquals(page(FixturePage.class).getListOfDropDownTexts(
+                webDriver().findElement(By.id("countries"))).get(199), "Country 200", "Drop down text is incorrect");
+    }
+
+    @Test(description = "Bulk extraction benchmark")
+    @Description("Report per element getText() and single script extraction timings of calendar cells")
+    public void bulkExtractionBenchmarkTest() {
+        List<WebElement> cells = webDriver().findElements(By.cssSelector("#calendar td"));
+        List<String> perElementTexts = new ArrayList<>();
+        List<String> bulkTexts = new ArrayList<>();
+        long perElementNanos = 0;
+        long bulkNanos = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            perElementTexts = cells.stream().map(WebElement::getText).collect(Collectors.toList());
+            perElementNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            bulkTexts = page(FixturePage.class).snapshotElements(cells).stream()
+                    .map(ElementSnapshot::getText).collect(Collectors.toList());
+            bulkNanos += System.nanoTime() - start;
+        }
+
+        long perElementMillis = perElementNanos / ROUNDS / 1_000_000;
+        long bulkMillis = bulkNanos / ROUNDS / 1_000_000;
+        Log.info("BENCH: {} cells, per element getText() {} ms, bulk extraction {} ms",
+                cells.size(), perElementMillis, bulkMillis);
+
+        // Timings are only reported, wall clock comparison is not reliable on loaded machines
+        Assert.assertEquals(bulkTexts, perElementTexts, "Bulk extraction texts differ from getText()");
+    }
+}
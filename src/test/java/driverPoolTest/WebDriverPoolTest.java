@@ -0,0 +1,133 @@
+package driverPoolTest;
+
+import factory.driver.WebDriverPool;
+import io.qameta.allure.Description;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks release of sessions to the pool while they are reset, with stub sessions, no browser is needed.
+ */
+public class WebDriverPoolTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final AtomicInteger creations = new AtomicInteger();
+    private final AtomicInteger quits = new AtomicInteger();
+    private volatile CountDownLatch resetAllowed;
+    private CountDownLatch resetStarted;
+    private ExecutorService threads;
+    private WebDriverPool pool;
+
+    @BeforeMethod()
+    public void createPool() {
+        creations.set(0);
+        quits.set(0);
+        resetStarted = new CountDownLatch(1);
+        resetAllowed = new CountDownLatch(1);
+        threads = Executors.newCachedThreadPool();
+        pool = new WebDriverPool(this::createSession, 0, 1, 60, TIMEOUT_SECONDS);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void closePool() {
+        resetAllowed.countDown();
+        threads.shutdownNow();
+        pool.close();
+    }
+
+    @Test(description = "Session being reset counts towards pool size")
+    @Description("Lease waits for session which is being reset instead of creating session over max size")
+    public void sessionBeingResetCountsTowardsPoolSizeTest() throws Exception {
+        WebDriver driver = pool.lease();
+        threads.submit(() -> pool.release(driver));
+        Assert.assertTrue(resetStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Session reset did not start");
+
+        Future<WebDriver> lease = threads.submit(pool::lease);
+        assertWaiting(lease);
+        Assert.assertEquals(creations.get(), 1, "Session was created over pool max size");
+        resetAllowed.countDown();
+
+        Assert.assertSame(lease.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), driver, "Reset session is not reused");
+        Assert.assertEquals(creations.get(), 1, "Session was created over pool max size");
+    }
+
+    @Test(description = "Release during reset is ignored")
+    @Description("Second release of session which is being reset does not quit it, session returns to the pool")
+    public void releaseDuringResetIsIgnoredTest() throws Exception {
+        WebDriver driver = pool.lease();
+        Future<?> firstRelease = threads.submit(() -> pool.release(driver));
+        Assert.assertTrue(resetStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Session reset did not start");
+
+        pool.release(driver);
+        resetAllowed.countDown();
+        firstRelease.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Assert.assertEquals(quits.get(), 0, "Session was quit by second release");
+        Assert.assertSame(pool.lease(), driver, "Reset session is not returned to the pool");
+    }
+
+    @Test(description = "Session of other owner is quit")
+    @Description("Session which was not leased from the pool is quit on release, so it does not leak")
+    public void sessionOfOtherOwnerIsQuitTest() {
+        resetAllowed.countDown();
+
+        pool.release(createSession());
+
+        Assert.assertEquals(quits.get(), 1, "Session which was not leased is not quit");
+    }
+
+    private static void assertWaiting(Future<WebDriver> lease) throws Exception {
+        try {
+            lease.get(300, TimeUnit.MILLISECONDS);
+            Assert.fail("Lease did not wait for session being reset");
+        } catch (TimeoutException e) {
+            // Lease waits
+        }
+    }
+
+    /**
+     * Stub session with one window, reset waits till "resetAllowed" is released.
+     */
+    private WebDriver createSession() {
+        creations.incrementAndGet();
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWindowHandles":
+                            resetStarted.countDown();
+                            resetAllowed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                            return Collections.singleton("window");
+                        case "quit":
+                            quits.incrementAndGet();
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubWebDriver";
+                        default:
+                            // switchTo() and manage() answer with stubs which accept every call
+                            return method.getReturnType().isInterface()
+                                    ? Proxy.newProxyInstance(getClass().getClassLoader(),
+                                    new Class<?>[]{method.getReturnType()}, (nested, nestedMethod, nestedArgs) -> proxy)
+                                    : null;
+                    }
+                });
+    }
+}
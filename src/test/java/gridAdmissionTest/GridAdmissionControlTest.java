@@ -0,0 +1,190 @@
+package gridAdmissionTest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.WebDriverFactoryException;
+import factory.driver.GridAdmissionControl;
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks admission of session requests against local fake hub which reports configurable number of free slots.
+ */
+public class GridAdmissionControlTest {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final long ADMISSION_TIMEOUT_MILLIS = 10000;
+
+    private final AtomicInteger freeSlots = new AtomicInteger();
+    private volatile boolean grid3;
+    private HttpServer hub;
+    private URL hubUrl;
+
+    @BeforeClass()
+    @Description("Start fake hub")
+    public void setUp() throws IOException {
+        hub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        hub.createContext("/", this::handle);
+        hub.start();
+        hubUrl = new URL("http://127.0.0.1:" + hub.getAddress().getPort() + "/wd/hub");
+    }
+
+    @BeforeMethod()
+    public void resetHub() {
+        grid3 = false;
+        freeSlots.set(0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        hub.stop(0);
+    }
+
+    @Test(description = "Session requests are limited by free slots")
+    @Description("Only as many sessions as Grid has free slots are requested, the rest wait till slots are free")
+    public void sessionRequestsAreLimitedByFreeSlotsTest() throws Exception {
+        freeSlots.set(2);
+        GridAdmissionControl admissionControl = new GridAdmissionControl(hubUrl, POLL_INTERVAL_MILLIS, ADMISSION_TIMEOUT_MILLIS);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch firstSessionsCreated = new CountDownLatch(2);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int index = 0; index < 4; index++) {
+                requests.add(threads.submit(() -> admissionControl.admit(() -> {
+                    admitted.incrementAndGet();
+                    // Created session takes its slot on the hub
+                    freeSlots.decrementAndGet();
+                    firstSessionsCreated.countDown();
+                    return null;
+                })));
+            }
+            Assert.assertTrue(firstSessionsCreated.await(5, TimeUnit.SECONDS), "Sessions were not admitted");
+            Thread.sleep(POLL_INTERVAL_MILLIS * 6);
+            Assert.assertEquals(admitted.get(), 2, "More sessions were requested than Grid has free slots");
+
+            // Two slots are freed on the hub
+            freeSlots.set(2);
+            for (Future<?> request : requests) {
+                request.get(5, TimeUnit.SECONDS);
+            }
+            Assert.assertEquals(admitted.get(), 4, "Waiting session requests were not admitted");
+        } finally {
+            threads.shutdownNow();
+            admissionControl.close();
+        }
+    }
+
+    @Test(description = "Requests in flight are never over free slots")
+    @Description("Polls during admission do not hand out permits of requests which are already admitted")
+    public void requestsInFlightAreNeverOverFreeSlotsTest() throws Exception {
+        freeSlots.set(3);
+        // Hub is polled as often as possible, so polls run between admission and creation of sessions
+        GridAdmissionControl admissionControl = new GridAdmissionControl(hubUrl, 1, ADMISSION_TIMEOUT_MILLIS);
+        AtomicInteger creating = new AtomicInteger();
+        AtomicInteger maxCreating = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int index = 0; index < 40; index++) {
+                requests.add(threads.submit(() -> admissionControl.admit(() -> {
+                    maxCreating.accumulateAndGet(creating.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    creating.decrementAndGet();
+                    // Session creation fails, so its slot stays free
+                    throw new IllegalStateException("Session is not created");
+                })));
+            }
+            for (Future<?> request : requests) {
+                try {
+                    request.get(ADMISSION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof IllegalStateException, "Unexpected failure: " + e.getCause());
+                }
+            }
+            Assert.assertTrue(maxCreating.get() <= 3, maxCreating.get() + " sessions were requested at once for 3 free slots");
+        } finally {
+            threads.shutdownNow();
+            admissionControl.close();
+        }
+    }
+
+    @Test(description = "Request fails when no slot is freed")
+    @Description("Session request fails after admission timeout when Grid has no free slot")
+    public void requestFailsWhenNoSlotIsFreedTest() {
+        GridAdmissionControl admissionControl = new GridAdmissionControl(hubUrl, POLL_INTERVAL_MILLIS, 300);
+        try {
+            admissionControl.admit(() -> null);
+            Assert.fail("Session was admitted without free slot");
+        } catch (WebDriverFactoryException e) {
+            Assert.assertTrue(e.getMessage().contains("No free Grid slot"), "Unexpected failure: " + e.getMessage());
+        } finally {
+            admissionControl.close();
+        }
+    }
+
+    @Test(description = "Grid 3 slot counts are used")
+    @Description("Free slots are read from Grid 3 hub API when Grid 4 status has no nodes")
+    public void grid3SlotCountsAreUsedTest() {
+        grid3 = true;
+        freeSlots.set(3);
+        GridAdmissionControl admissionControl = new GridAdmissionControl(hubUrl, POLL_INTERVAL_MILLIS, ADMISSION_TIMEOUT_MILLIS);
+        try {
+            Assert.assertEquals(admissionControl.getAvailablePermits(), 3, "Free slots of Grid 3 hub are not used");
+        } finally {
+            admissionControl.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String strPath = exchange.getRequestURI().getPath();
+        String strBody = null;
+        if ("/status".equals(strPath)) {
+            strBody = grid3 ? "{\"status\":0,\"value\":{\"ready\":true}}" : grid4Status(freeSlots.get());
+        } else if ("/grid/api/hub".equals(strPath) && grid3) {
+            strBody = "{\"success\":true,\"slotCounts\":{\"free\":" + freeSlots.get() + ",\"total\":5}}";
+        }
+        final byte[] body = (strBody == null ? "" : strBody).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(strBody == null ? 404 : 200, body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static String grid4Status(int free) {
+        StringBuilder slots = new StringBuilder();
+        for (int index = 0; index < 5; index++) {
+            if (index > 0) {
+                slots.append(',');
+            }
+            slots.append("{\"id\":{\"id\":\"").append(index).append("\"},\"session\":")
+                    .append(index < free ? "null" : "{\"sessionId\":\"busy-" + index + "\"}").append('}');
+        }
+        return "{\"value\":{\"ready\":true,\"nodes\":[{\"availability\":\"UP\",\"slots\":[" + slots + "]}]}}";
+    }
+}
@@ -0,0 +1,70 @@
+package parallelExecutionTest;
+
+import baseTest.BaseTest;
+import baseTest.FixturePage;
+import factory.driver.WebDriverFactory;
+import io.qameta.allure.Description;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ParallelExecutionTest extends BaseTest {
+
+    // Both parallel methods run at once, each on its own pool of 4 threads
+    private static final int MAX_PARALLEL_INVOCATIONS = 8;
+
+    // Drivers which are used by some test method right now
+    private final Set<WebDriver> driversInUse = ConcurrentHashMap.newKeySet();
+    private final Set<WebDriver> driversUsed = ConcurrentHashMap.newKeySet();
+
+    @Test(description = "Thread confined driver", invocationCount = 12, threadPoolSize = 4)
+    @Description("Every thread works with its own driver and page objects")
+    public void threadConfinedDriverTest() {
+        WebDriver driver = webDriver();
+        Assert.assertTrue(driversInUse.add(driver), "Driver is used by two threads at once");
+        driversUsed.add(driver);
+        try {
+            String owner = "thread-" + Thread.currentThread().getId() + "-" + System.nanoTime();
+            FixturePage fixturePage = page(FixturePage.class);
+            fixturePage.openFixture("?owner=" + owner);
+            fixturePage.isLoaded();
+            fixturePage.fillOwner(owner);
+
+            Assert.assertSame(fixturePage.getWebDriver(), driver, "Page object is bound to driver of other thread");
+            Assert.assertTrue(driver.getCurrentUrl().endsWith("?owner=" + owner), "Page was navigated by other thread");
+            Assert.assertEquals(fixturePage.getAttribute(fixturePage.ownerInput, "value"), owner,
+                    "Input was changed by other thread");
+        } finally {
+            driversInUse.remove(driver);
+        }
+    }
+
+    @Test(description = "Parallel page title check", invocationCount = 8, threadPoolSize = 4)
+    @Description("Fixture page is loaded independently in every thread")
+    public void parallelPageTitleTest() {
+        WebDriver driver = webDriver();
+        Assert.assertTrue(driversInUse.add(driver), "Driver is used by two threads at once");
+        driversUsed.add(driver);
+        try {
+            FixturePage fixturePage = page(FixturePage.class);
+            fixturePage.openFixture("");
+            fixturePage.isLoaded();
+            Assert.assertEquals(driver.getTitle(), fixturePage.strPageTitle, "Fixture page title is incorrect");
+        } finally {
+            driversInUse.remove(driver);
+        }
+    }
+
+    @Test(description = "Sessions are shared between threads",
+            dependsOnMethods = {"threadConfinedDriverTest", "parallelPageTitleTest"})
+    @Description("Class leases no more sessions than methods run at once and than the pool allows")
+    public void sessionsAreSharedBetweenThreadsTest() {
+        Assert.assertTrue(driversUsed.size() <= MAX_PARALLEL_INVOCATIONS,
+                "More sessions were used than invocations run at once: " + driversUsed.size());
+        Assert.assertTrue(getLeasedDriverCount() <= Math.min(MAX_PARALLEL_INVOCATIONS, WebDriverFactory.getSessionLimit()),
+                "Class leased more sessions than allowed: " + getLeasedDriverCount());
+    }
+}
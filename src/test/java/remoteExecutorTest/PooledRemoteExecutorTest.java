@@ -0,0 +1,185 @@
+package remoteExecutorTest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import factory.driver.PooledHttpClientFactory;
+import io.qameta.allure.Description;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks pooled command executor against local stand-in hub which answers W3C commands of one session.
+ */
+public class PooledRemoteExecutorTest {
+
+    private static final String SESSION_ID = "stand-in-session";
+    private static final String PAGE_URL = "http://stand-in.local/index.php";
+    private static final long READ_TIMEOUT_MILLIS = 500;
+    private static final long SLOW_COMMAND_MILLIS = 3000;
+
+    // Client ports seen by the hub, every new connection has its own port
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    // Requests by "METHOD /path", first request of every kind in this set is dropped without response
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final Set<String> droppedRequests = ConcurrentHashMap.newKeySet();
+    private HttpServer hub;
+    private URL hubUrl;
+
+    @BeforeClass()
+    @Description("Start stand-in hub")
+    public void setUp() throws IOException {
+        hub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        hub.createContext("/", this::handle);
+        hub.setExecutor(Executors.newCachedThreadPool());
+        hub.start();
+        hubUrl = new URL("http://127.0.0.1:" + hub.getAddress().getPort() + "/wd/hub");
+    }
+
+    @BeforeMethod()
+    public void resetHub() {
+        clientPorts.clear();
+        requests.clear();
+        droppedRequests.clear();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        hub.stop(0);
+    }
+
+    @Test(description = "Commands reuse pooled connection")
+    @Description("All commands of a session are sent over one keep-alive connection")
+    public void commandsReusePooledConnectionTest() {
+        PooledHttpClientFactory factory = new PooledHttpClientFactory(5, 60, 1000, 5000, null);
+        RemoteWebDriver driver = createDriver(factory);
+        for (int index = 0; index < 20; index++) {
+            Assert.assertEquals(driver.getCurrentUrl(), PAGE_URL, "Current URL is incorrect");
+        }
+        driver.quit();
+
+        Assert.assertEquals(clientPorts.size(), 1, "Commands were not sent over one connection");
+        Assert.assertEquals(factory.getConnectionCount(), 1, "Connection is not kept alive after session quit");
+        factory.evictIdleConnections();
+        Assert.assertEquals(factory.getConnectionCount(), 0, "Idle connection is not closed");
+    }
+
+    @Test(description = "Requests are recorded")
+    @Description("Every request is passed to request recorder with session id replaced")
+    public void requestsAreRecordedTest() {
+        Map<String, Integer> recorded = new ConcurrentHashMap<>();
+        RemoteWebDriver driver = createDriver(new PooledHttpClientFactory(5, 60, 1000, 5000,
+                (strRequest, durationNanos) -> {
+                    Assert.assertTrue(durationNanos > 0, "Duration of " + strRequest + " is not positive");
+                    recorded.merge(strRequest, 1, Integer::sum);
+                }));
+        for (int index = 0; index < 3; index++) {
+            driver.getCurrentUrl();
+        }
+        driver.quit();
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("POST /session", 1);
+        expected.put("GET /session/{id}/url", 3);
+        expected.put("DELETE /session/{id}", 1);
+        Assert.assertEquals(recorded, expected, "Recorded requests");
+    }
+
+    @Test(description = "Only idempotent requests are retried")
+    @Description("GET is retried on dropped connection, POST fails, so command is never sent twice")
+    public void onlyIdempotentRequestsAreRetriedTest() {
+        RemoteWebDriver driver = createDriver(new PooledHttpClientFactory(5, 60, 1000, 5000, null));
+        droppedRequests.add("GET /session/" + SESSION_ID + "/url");
+        droppedRequests.add("POST /session/" + SESSION_ID + "/url");
+
+        Assert.assertEquals(driver.getCurrentUrl(), PAGE_URL, "Current URL is incorrect");
+        try {
+            driver.get(PAGE_URL);
+            Assert.fail("Navigation over dropped connection did not fail");
+        } catch (WebDriverException e) {
+            // POST is not retried
+        }
+
+        Assert.assertEquals(requests.get("GET /session/" + SESSION_ID + "/url").get(), 2, "GET was not retried");
+        Assert.assertEquals(requests.get("POST /session/" + SESSION_ID + "/url").get(), 1, "POST was retried");
+    }
+
+    @Test(description = "Slow command fails by read timeout")
+    @Description("Command which hub does not answer in time fails after configured read timeout")
+    public void slowCommandFailsByReadTimeoutTest() {
+        RemoteWebDriver driver = createDriver(new PooledHttpClientFactory(5, 60, 1000, READ_TIMEOUT_MILLIS, null));
+        long start = System.currentTimeMillis();
+        try {
+            driver.getTitle();
+            Assert.fail("Slow command did not fail");
+        } catch (WebDriverException e) {
+            long duration = System.currentTimeMillis() - start;
+            Assert.assertTrue(duration < SLOW_COMMAND_MILLIS, "Command failed after " + duration + " ms, not by read timeout");
+        }
+    }
+
+    private RemoteWebDriver createDriver(PooledHttpClientFactory factory) {
+        return new RemoteWebDriver(new HttpCommandExecutor(Collections.emptyMap(), hubUrl, factory),
+                DesiredCapabilities.chrome());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try (InputStream input = exchange.getRequestBody()) {
+            while (input.read() != -1) {
+                // Request body is not used
+            }
+        }
+        final String strPath = exchange.getRequestURI().getPath().replaceFirst("^/wd/hub", "");
+        final String strMethod = exchange.getRequestMethod();
+        final String strRequest = strMethod + " " + strPath;
+        requests.computeIfAbsent(strRequest, key -> new AtomicInteger()).incrementAndGet();
+        if (droppedRequests.remove(strRequest)) {
+            // Connection is closed without response, as stale keep-alive connection closed by the hub
+            exchange.close();
+            return;
+        }
+        final String strValue;
+        if ("POST".equals(strMethod) && "/session".equals(strPath)) {
+            strValue = "{\"sessionId\":\"" + SESSION_ID + "\",\"capabilities\":{\"browserName\":\"chrome\"}}";
+        } else if ("GET".equals(strMethod) && strPath.equals("/session/" + SESSION_ID + "/url")) {
+            strValue = "\"" + PAGE_URL + "\"";
+        } else if ("GET".equals(strMethod) && strPath.equals("/session/" + SESSION_ID + "/title")) {
+            try {
+                Thread.sleep(SLOW_COMMAND_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            strValue = "\"Slow\"";
+        } else {
+            strValue = "null";
+        }
+        final byte[] body = ("{\"value\":" + strValue + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package replayTest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import replay.ReplayServer;
+import replay.ResponseArchive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks recording, replaying and rewriting of links to the site against a local stand-in site, no browser is needed.
+ */
+public class ReplayServerTest {
+
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+    private final List<ReplayServer> replayServers = new ArrayList<>();
+    private HttpServer upstream;
+    private String upstreamAuthority;
+    private Path directory;
+
+    @BeforeMethod()
+    public void startUpstream() throws IOException {
+        upstreamRequests.set(0);
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstreamAuthority = "127.0.0.1:" + upstream.getAddress().getPort();
+        upstream.createContext("/index.php", exchange -> respond(exchange, 200, "text/html; charset=utf-8",
+                "<a href=\"http://" + upstreamAuthority + "/index.php?controller=cart\">Cart</a>"
+                        + "<a href=\"https://" + upstreamAuthority + "/index.php?controller=order\">Order</a>"
+                        + "<img src=\"//" + upstreamAuthority + "/img/logo.png\">"
+                        + "<a href=\"https://example.org/\">Other site</a>"));
+        upstream.createContext("/cart.json", exchange -> respond(exchange, 200, "application/json",
+                "{\"url\":\"https:\\/\\/" + upstreamAuthority + "\\/index.php?controller=cart\"}"));
+        upstream.createContext("/logo.png", exchange -> respond(exchange, 200, "image/png",
+                "//" + upstreamAuthority));
+        upstream.createContext("/login", exchange -> {
+            exchange.getResponseHeaders().add("Location", "https://" + upstreamAuthority + "/index.php?controller=my-account");
+            exchange.getResponseHeaders().add("Set-Cookie",
+                    "PrestaShop-1=abc; expires=Fri, 01-Jan-2038 00:00:00 GMT; Domain=127.0.0.1; path=/; Secure; HttpOnly");
+            respond(exchange, 302, "text/html", "");
+        });
+        upstream.start();
+        directory = Files.createTempDirectory("replay-archive");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopServers() throws IOException {
+        replayServers.forEach(ReplayServer::stop);
+        replayServers.clear();
+        upstream.stop(0);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(description = "Links to the site are rewritten")
+    @Description("Absolute, protocol relative and JSON escaped links to the site point to the replay server, "
+            + "links to other sites and binary bodies are kept")
+    public void linksAreRewrittenTest() throws IOException {
+        final String strLocalAuthority = authority(start(true));
+
+        final HttpURLConnection page = get(strLocalAuthority, "/index.php");
+        Assert.assertEquals(page.getResponseCode(), 200);
+        Assert.assertEquals(body(page), "<a href=\"http://" + strLocalAuthority + "/index.php?controller=cart\">Cart</a>"
+                + "<a href=\"http://" + strLocalAuthority + "/index.php?controller=order\">Order</a>"
+                + "<img src=\"//" + strLocalAuthority + "/img/logo.png\">"
+                + "<a href=\"https://example.org/\">Other site</a>");
+
+        Assert.assertEquals(body(get(strLocalAuthority, "/cart.json")),
+                "{\"url\":\"http:\\/\\/" + strLocalAuthority + "\\/index.php?controller=cart\"}");
+        Assert.assertEquals(body(get(strLocalAuthority, "/logo.png")), "//" + upstreamAuthority);
+    }
+
+    @Test(description = "Location and Set-Cookie are rewritten")
+    @Description("Redirect points to the replay server, cookie has no domain and is not secure, other attributes are kept")
+    public void locationAndCookieAreRewrittenTest() throws IOException {
+        final String strLocalAuthority = authority(start(true));
+
+        final HttpURLConnection login = get(strLocalAuthority, "/login");
+
+        Assert.assertEquals(login.getResponseCode(), 302);
+        Assert.assertEquals(login.getHeaderField("Location"),
+                "http://" + strLocalAuthority + "/index.php?controller=my-account");
+        Assert.assertEquals(login.getHeaderField("Set-Cookie"),
+                "PrestaShop-1=abc; expires=Fri, 01-Jan-2038 00:00:00 GMT; path=/; HttpOnly");
+    }
+
+    @Test(description = "Recorded responses are replayed without the site")
+    @Description("Response is fetched from the site once, replay mode serves it after the site is stopped "
+            + "and answers 404 for requests which are not recorded")
+    public void recordedResponsesAreReplayedTest() throws IOException {
+        final String strRecordingAuthority = authority(start(true));
+        final String strRecorded = body(get(strRecordingAuthority, "/index.php?id_product=1"));
+        body(get(strRecordingAuthority, "/index.php?id_product=1"));
+        Assert.assertEquals(upstreamRequests.get(), 1, "Recorded response should be served from archive");
+        upstream.stop(0);
+
+        final String strReplayingAuthority = authority(start(false));
+        final HttpURLConnection replayed = get(strReplayingAuthority, "/index.php?id_product=1");
+
+        Assert.assertEquals(replayed.getResponseCode(), 200);
+        Assert.assertEquals(body(replayed), strRecorded.replace(strRecordingAuthority, strReplayingAuthority));
+        Assert.assertEquals(get(strReplayingAuthority, "/index.php?id_product=2").getResponseCode(), 404);
+    }
+
+    private ReplayServer start(boolean recording) throws IOException {
+        final ReplayServer replayServer = ReplayServer.start("http://" + upstreamAuthority + "/",
+                new ResponseArchive(directory), recording, 0);
+        replayServers.add(replayServer);
+        return replayServer;
+    }
+
+    private static String authority(ReplayServer replayServer) throws IOException {
+        return new URL(replayServer.getLocalSiteUrl()).getAuthority();
+    }
+
+    private void respond(HttpExchange exchange, int status, String strContentType, String strBody) throws IOException {
+        upstreamRequests.incrementAndGet();
+        final byte[] body = strBody.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", strContentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static HttpURLConnection get(String strAuthority, String strPathAndQuery) throws IOException {
+        final HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://" + strAuthority + strPathAndQuery).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        return connection;
+    }
+
+    private static String body(HttpURLConnection connection) throws IOException {
+        try (InputStream input = connection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST
+                ? connection.getErrorStream() : connection.getInputStream()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+            return output.toString(StandardCharsets.UTF_8.name());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package replayTest;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import replay.ResponseArchive;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks saving and finding of recorded responses, no browser is needed.
+ */
+public class ResponseArchiveTest {
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    private Path directory;
+
+    @BeforeMethod()
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("replay-archive");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(description = "Saved response is found")
+    @Description("Status, headers in their order and body are the same as saved")
+    public void savedResponseIsFoundTest() throws IOException {
+        final ResponseArchive archive = new ResponseArchive(directory.resolve("nested"));
+        archive.save("GET", "/index.php?id_product=1", NO_BODY, response(200, "product 1"));
+
+        final ResponseArchive.RecordedResponse response = archive.find("GET", "/index.php?id_product=1", NO_BODY);
+
+        Assert.assertNotNull(response, "Saved response is not found");
+        Assert.assertEquals(response.getStatus(), 200);
+        Assert.assertEquals(headers(response), Arrays.asList("Content-Type: text/html; charset=utf-8",
+                "Set-Cookie: sid=1; Path=/", "Set-Cookie: lang=en; Path=/"));
+        Assert.assertEquals(new String(response.getBody(), StandardCharsets.UTF_8), "product 1");
+    }
+
+    @Test(description = "Other requests are not found")
+    @Description("Requests with other method, path, query or body are not recorded ones")
+    public void otherRequestsAreNotFoundTest() throws IOException {
+        final ResponseArchive archive = new ResponseArchive(directory);
+        final byte[] body = "qty=1".getBytes(StandardCharsets.UTF_8);
+        archive.save("POST", "/cart?add=1", body, response(200, "added"));
+
+        Assert.assertNotNull(archive.find("POST", "/cart?add=1", body));
+        Assert.assertNull(archive.find("GET", "/cart?add=1", body));
+        Assert.assertNull(archive.find("POST", "/order?add=1", body));
+        Assert.assertNull(archive.find("POST", "/cart?add=2", body));
+        Assert.assertNull(archive.find("POST", "/cart?add=1", "qty=2".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(description = "Saved response replaces recorded one")
+    @Description("Second save of the same request replaces the response and leaves no temporary files")
+    public void savedResponseReplacesRecordedOneTest() throws IOException {
+        final ResponseArchive archive = new ResponseArchive(directory);
+        archive.save("GET", "/", NO_BODY, response(200, "first"));
+        archive.save("GET", "/", NO_BODY, response(404, "second"));
+
+        final ResponseArchive.RecordedResponse response = archive.find("GET", "/", NO_BODY);
+
+        Assert.assertEquals(response.getStatus(), 404);
+        Assert.assertEquals(new String(response.getBody(), StandardCharsets.UTF_8), "second");
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertEquals(files.count(), 2, "Only meta and body files are expected");
+        }
+    }
+
+    @Test(description = "Ignored parameters are dropped")
+    @Description("normalize() removes ignored query parameters and keeps order of the others")
+    public void ignoredParamsAreDroppedTest() {
+        final ResponseArchive archive = new ResponseArchive(directory, Arrays.asList("_", "rand"));
+
+        Assert.assertEquals(archive.normalize("/index.php?_=123&controller=cart&rand=0.5&ajax"),
+                "/index.php?controller=cart&ajax");
+        Assert.assertEquals(archive.normalize("/index.php?_=123"), "/index.php");
+        Assert.assertEquals(archive.normalize("/index.php?controller=cart"), "/index.php?controller=cart");
+        Assert.assertEquals(archive.normalize("/index.php"), "/index.php");
+    }
+
+    @Test(description = "Requests differing in ignored parameters share response")
+    @Description("Response recorded with one cache buster is found with another one")
+    public void ignoredParamsShareResponseTest() throws IOException {
+        final ResponseArchive archive = new ResponseArchive(directory, Collections.singletonList("_"));
+        archive.save("GET", "/index.php?controller=cart&_=1", NO_BODY, response(200, "cart"));
+
+        Assert.assertNotNull(archive.find("GET", "/index.php?controller=cart&_=2", NO_BODY));
+        Assert.assertNotNull(archive.find("GET", "/index.php?_=3&controller=cart", NO_BODY));
+        Assert.assertNull(archive.find("GET", "/index.php?controller=order&_=1", NO_BODY));
+    }
+
+    @Test(description = "Response is found while it is saved again")
+    @Description("Parallel find never reads half written files of the response being replaced")
+    public void responseIsFoundWhileSavedTest() throws Exception {
+        final ResponseArchive archive = new ResponseArchive(directory);
+        archive.save("GET", "/", NO_BODY, response(200, "page"));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> saving = executor.submit(() -> {
+                for (int index = 0; index < 500; index++) {
+                    archive.save("GET", "/", NO_BODY, response(200, "page"));
+                }
+                return null;
+            });
+            while (!saving.isDone()) {
+                ResponseArchive.RecordedResponse response = archive.find("GET", "/", NO_BODY);
+                Assert.assertNotNull(response, "Response disappeared during save");
+                Assert.assertEquals(response.getStatus(), 200);
+                Assert.assertEquals(response.getHeaders().size(), 3);
+                Assert.assertEquals(new String(response.getBody(), StandardCharsets.UTF_8), "page");
+            }
+            saving.get();
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ResponseArchive.RecordedResponse response(int status, String strBody) {
+        return new ResponseArchive.RecordedResponse(status, Arrays.asList(
+                new String[]{"Content-Type", "text/html; charset=utf-8"},
+                new String[]{"Set-Cookie", "sid=1; Path=/"},
+                new String[]{"Set-Cookie", "lang=en; Path=/"}),
+                strBody.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> headers(ResponseArchive.RecordedResponse response) {
+        return response.getHeaders().stream()
+                .map(header -> header[0] + ": " + header[1])
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,89 @@
+package schedulingTest;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.DurationHistory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks merge of run durations into history file, no browser is needed.
+ */
+public class DurationHistoryTest {
+
+    private Path historyFile;
+
+    @BeforeMethod()
+    public void createHistoryFile() throws IOException {
+        historyFile = Files.createTempFile("test-durations", ".properties");
+        Files.delete(historyFile);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteHistoryFile() throws IOException {
+        Files.deleteIfExists(historyFile);
+    }
+
+    @Test(description = "First run is kept as it is")
+    @Description("Entry without history gets duration of the run and run count 1")
+    public void firstRunIsKeptTest() throws IOException {
+        DurationHistory.merge(historyFile, Collections.singletonMap("class.A", 1000L));
+
+        Assert.assertEquals(DurationHistory.read(historyFile), Collections.singletonMap("class.A", 1000L));
+        Assert.assertEquals(content(), "class.A=1000,1\n");
+    }
+
+    @Test(description = "Runs are averaged")
+    @Description("Known entry gets exponential moving average with the latest run weighted by 0.3")
+    public void runsAreAveragedTest() throws IOException {
+        DurationHistory.merge(historyFile, Collections.singletonMap("class.A", 1000L));
+        DurationHistory.merge(historyFile, Collections.singletonMap("class.A", 2000L));
+        DurationHistory.merge(historyFile, Collections.singletonMap("class.A", 2000L));
+
+        // 1000 * 0.7 + 2000 * 0.3 = 1300, 1300 * 0.7 + 2000 * 0.3 = 1510
+        Assert.assertEquals(DurationHistory.read(historyFile).get("class.A"), Long.valueOf(1510));
+        Assert.assertEquals(content(), "class.A=1510,3\n");
+    }
+
+    @Test(description = "Entries of other runs are kept")
+    @Description("Merge keeps entries which the run did not record, e.g. written by other shard")
+    public void otherEntriesAreKeptTest() throws IOException {
+        DurationHistory.merge(historyFile, Collections.singletonMap("class.A", 1000L));
+        Map<String, Long> run = new HashMap<>();
+        run.put("class.B", 500L);
+        run.put("method.B.test", 400L);
+        DurationHistory.merge(historyFile, run);
+
+        Map<String, Long> expected = new HashMap<>(run);
+        expected.put("class.A", 1000L);
+        Assert.assertEquals(DurationHistory.read(historyFile), expected);
+    }
+
+    @Test(description = "Incorrect entries are skipped")
+    @Description("Entries which are not numbers are dropped, correct entries are merged")
+    public void incorrectEntriesAreSkippedTest() throws IOException {
+        Files.write(historyFile, "class.A=slow\nclass.B=100\n".getBytes(StandardCharsets.UTF_8));
+        DurationHistory.merge(historyFile, Collections.singletonMap("class.B", 200L));
+
+        Assert.assertEquals(content(), "class.B=130,2\n");
+    }
+
+    @Test(description = "Missing history is empty")
+    @Description("History file which does not exist yet is read as empty history")
+    public void missingHistoryIsEmptyTest() throws IOException {
+        Assert.assertTrue(DurationHistory.read(historyFile).isEmpty(), "History of missing file is not empty");
+    }
+
+    private String content() throws IOException {
+        return new String(Files.readAllBytes(historyFile), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package schedulingTest;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.LongestFirstInterceptor;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks longest first order of work with and without duration history, no browser is needed.
+ */
+public class LongestFirstOrderTest {
+
+    @Test(description = "Work is ordered longest first")
+    @Description("Known work is ordered by duration, longest first")
+    public void workIsOrderedLongestFirstTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("short", 100L);
+        durations.put("long", 900L);
+        durations.put("medium", 500L);
+
+        Assert.assertEquals(LongestFirstInterceptor.longestFirst(durations), Arrays.asList("long", "medium", "short"));
+    }
+
+    @Test(description = "Unknown work is estimated as average")
+    @Description("Work without history is placed as work with average of known durations")
+    public void unknownWorkIsEstimatedAsAverageTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("unknown", -1L);
+        durations.put("short", 100L);
+        durations.put("long", 900L);
+        durations.put("medium", 400L);
+
+        // Average of known work is 466, so unknown work runs after long and before medium
+        Assert.assertEquals(LongestFirstInterceptor.longestFirst(durations),
+                Arrays.asList("long", "unknown", "medium", "short"));
+    }
+
+    @Test(description = "Equal work keeps declared order")
+    @Description("Order is stable, work with equal estimate keeps its declared order")
+    public void equalWorkKeepsDeclaredOrderTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("first", 300L);
+        durations.put("unknown", -1L);
+        durations.put("second", 300L);
+
+        Assert.assertEquals(LongestFirstInterceptor.longestFirst(durations), Arrays.asList("first", "unknown", "second"));
+    }
+
+    @Test(description = "Work without history keeps declared order")
+    @Description("When no duration is known work stays in declared order")
+    public void workWithoutHistoryKeepsDeclaredOrderTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("first", -1L);
+        durations.put("second", -1L);
+        durations.put("third", -1L);
+
+        Assert.assertEquals(LongestFirstInterceptor.longestFirst(durations), Arrays.asList("first", "second", "third"));
+    }
+}
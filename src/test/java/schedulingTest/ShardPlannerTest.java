@@ -0,0 +1,82 @@
+package schedulingTest;
+
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utils.ShardPlanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks assignment of test classes to shards, no browser is needed.
+ */
+public class ShardPlannerTest {
+
+    @Test(description = "Classes are balanced by duration")
+    @Description("Classes are assigned longest first to the least loaded shard")
+    public void classesAreBalancedByDurationTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("A", 100L);
+        durations.put("B", 700L);
+        durations.put("C", 300L);
+        durations.put("D", 400L);
+        durations.put("E", 200L);
+
+        // Loads after every class: B 700/0, D 700/400, C 700/700, E 900/700 (tie goes to shard 0), A 900/800
+        Assert.assertEquals(ShardPlanner.plan(durations, 2),
+                Arrays.asList(Arrays.asList("B", "E"), Arrays.asList("D", "C", "A")));
+    }
+
+    @Test(description = "Classes without history are split by name")
+    @Description("Without any history classes are dealt to shards in name order, independent of declared order")
+    public void classesWithoutHistoryAreSplitByNameTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (String strClass : Arrays.asList("E", "C", "A", "D", "B")) {
+            durations.put(strClass, -1L);
+        }
+
+        Assert.assertEquals(ShardPlanner.plan(durations, 2),
+                Arrays.asList(Arrays.asList("A", "C", "E"), Arrays.asList("B", "D")));
+    }
+
+    @Test(description = "Plan does not depend on declared order")
+    @Description("Shards which list the same classes in other order compute the same plan")
+    public void planDoesNotDependOnDeclaredOrderTest() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("A", 500L);
+        durations.put("B", -1L);
+        durations.put("C", 500L);
+        durations.put("D", 100L);
+        List<String> reversed = new ArrayList<>(durations.keySet());
+        Collections.reverse(reversed);
+        Map<String, Long> reversedDurations = new LinkedHashMap<>();
+        for (String strClass : reversed) {
+            reversedDurations.put(strClass, durations.get(strClass));
+        }
+
+        Assert.assertEquals(ShardPlanner.plan(reversedDurations, 3), ShardPlanner.plan(durations, 3));
+    }
+
+    @Test(description = "Every class is planned once")
+    @Description("Every class is in exactly one shard, shards without classes stay empty")
+    public void everyClassIsPlannedOnceTest() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("A", 10L);
+        durations.put("B", -1L);
+
+        List<List<String>> shards = ShardPlanner.plan(durations, 4);
+
+        Assert.assertEquals(shards.size(), 4);
+        List<String> planned = new ArrayList<>();
+        shards.forEach(planned::addAll);
+        Collections.sort(planned);
+        Assert.assertEquals(planned, Arrays.asList("A", "B"));
+        Assert.assertTrue(shards.get(2).isEmpty() && shards.get(3).isEmpty(), "Shards without classes are not empty");
+    }
+}
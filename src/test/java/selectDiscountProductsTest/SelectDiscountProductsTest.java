@@ -5,33 +5,58 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import baseTest.BaseTest;
+import pages.shoppingCartPage.CartStateSeeder;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
 
 public class SelectDiscountProductsTest extends BaseTest {
 
     @BeforeClass()
     @Description("Log in To Application3")
     public void setUp() throws InterruptedException {
-        //homePage.get();
-        webDriver().get("http://automationpractice.com/index.php");
-        homePage.isLoaded();
+        //homePage().get();
+        webDriver().get(System.getProperty("application.site.url"));
+        homePage().isLoaded();
 
     }
 
     @Test(description = "Select Sales Offers")
     @Description("Select Sales Offers")
     public void SelectOffers() throws InterruptedException {
-        for (int index = 0; index < homePage.salesPercentElement.size(); index++) {
-            homePage.moveOnSalesPercentageElement(index);
-            Assert.assertTrue(homePage.addToCartButton.isDisplayed(), "Add to chart button is not visible");
-            homePage.clickOnAddToCartButton();
-            homePage.clickOnContinueShoppingButton();
+        for (int index = 0; index < homePage().salesPercentElement.size(); index++) {
+            homePage().moveOnSalesPercentageElement(index);
+            Assert.assertTrue(homePage().addToCartButton.isDisplayed(), "Add to chart button is not visible");
+            homePage().clickOnAddToCartButton();
+            homePage().clickOnContinueShoppingButton();
         }
-        homePage.moveOnShoppingCartArea();
-        homePage.clickOnCheckOutButton();
-        shoppingCartPage.isLoaded();
-        Assert.assertTrue(shoppingCartPage.cartTitle.getText().toString().contains("SHOPPING-CART SUMMARY"), "Shopping cart page title is incorrect");
-        shoppingCartPage.clickOnProceedToCheckoutButton();
-        authenticationPage.isLoaded();
-        Assert.assertTrue(authenticationPage.authenticationPageTitle.getText().toString().contains("AUTHENTICATION"), "Authentication page title is incorrect");
+        homePage().moveOnShoppingCartArea();
+        homePage().clickOnCheckOutButton();
+        shoppingCartPage().isLoaded();
+        Assert.assertTrue(shoppingCartPage().cartTitle.getText().toString().contains("SHOPPING-CART SUMMARY"), "Shopping cart page title is incorrect");
+        shoppingCartPage().clickOnProceedToCheckoutButton();
+        authenticationPage().isLoaded();
+        Assert.assertTrue(authenticationPage().authenticationPageTitle.getText().toString().contains("AUTHENTICATION"), "Authentication page title is incorrect");
+    }
+
+    @Test(description = "Check out seeded Sales Offers")
+    @Description("Check out Sales Offers added to the cart over HTTP")
+    public void CheckOutSeededOffers() {
+        webDriver().get(System.getProperty("application.site.url"));
+        homePage().isLoaded();
+        List<String> productIds = homePage().getDiscountedProductIds();
+        Assert.assertFalse(productIds.isEmpty(), "There are no Sales Offers");
+        new CartStateSeeder(webDriver()).addProducts(productIds).openCart(shoppingCartPage());
+        Assert.assertTrue(shoppingCartPage().cartTitle.getText().contains("SHOPPING-CART SUMMARY"), "Shopping cart page title is incorrect");
+        // Product shown in several home page blocks is added twice and takes one row
+        List<String> cartProductIds = shoppingCartPage().getCartProductIds();
+        Assert.assertEquals(new TreeSet<>(cartProductIds), new TreeSet<>(productIds),
+                "Cart products differ from seeded Sales Offers");
+        Assert.assertEquals(cartProductIds.size(), new HashSet<>(productIds).size(),
+                "Every seeded product should take one cart row");
+        shoppingCartPage().clickOnProceedToCheckoutButton();
+        authenticationPage().isLoaded();
+        Assert.assertTrue(authenticationPage().authenticationPageTitle.getText().contains("AUTHENTICATION"), "Authentication page title is incorrect");
     }
 }
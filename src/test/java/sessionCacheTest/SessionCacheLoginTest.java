@@ -0,0 +1,204 @@
+package sessionCacheTest;
+
+import baseTest.BaseTest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import factory.driver.SessionStateCache;
+import io.qameta.allure.Description;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import utils.Configuration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks login through session state cache against local stand-in shop with login form and my-account page,
+ * shop accepts one user and password.
+ */
+public class SessionCacheLoginTest extends BaseTest {
+
+    private static final String SITE_URL_PROPERTY = "application.site.url";
+    private static final String SESSION_COOKIE = "shop_session";
+    private static final String EMAIL = "cached.user@example.com";
+    private static final String PASSWORD = "secret";
+    private static final String WRONG_PASSWORD = "wrong-secret";
+
+    private final AtomicInteger formLogins = new AtomicInteger();
+    private final Set<String> shopSessions = ConcurrentHashMap.newKeySet();
+    private HttpServer shop;
+    private String strSiteUrl;
+    private String strPreviousSiteUrl;
+
+    @BeforeClass()
+    @Description("Start stand-in shop")
+    public void setUp() throws IOException {
+        if (!Configuration.instance().getSessionCacheEnabled()) {
+            throw new SkipException("\"session.cache.enabled\" is false");
+        }
+        shop = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        shop.createContext("/", this::handle);
+        shop.start();
+        strSiteUrl = "http://127.0.0.1:" + shop.getAddress().getPort() + "/index.php";
+        strPreviousSiteUrl = System.getProperty(SITE_URL_PROPERTY);
+        System.setProperty(SITE_URL_PROPERTY, strSiteUrl);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopShop() {
+        if (shop == null) {
+            return;
+        }
+        shop.stop(0);
+        if (strPreviousSiteUrl == null) {
+            System.clearProperty(SITE_URL_PROPERTY);
+        } else {
+            System.setProperty(SITE_URL_PROPERTY, strPreviousSiteUrl);
+        }
+    }
+
+    @Test(description = "First login fills login form")
+    @Description("Without cached state user is logged in through login form and the state is cached")
+    public void firstLoginFillsLoginFormTest() {
+        authenticationPage().logIn(EMAIL, PASSWORD);
+
+        Assert.assertEquals(formLogins.get(), 1, "Login form was not used");
+        Assert.assertTrue(authenticationPage().isLoggedIn(), "User is not logged in");
+    }
+
+    @Test(description = "Cached state is restored", dependsOnMethods = "firstLoginFillsLoginFormTest")
+    @Description("Logged out browser is logged in by restoring cached state, login form is not used")
+    public void cachedStateIsRestoredTest() {
+        webDriver().manage().deleteAllCookies();
+        Assert.assertFalse(authenticationPage().isLoggedIn(), "User is logged in before state is restored");
+
+        authenticationPage().logIn(EMAIL, PASSWORD);
+
+        Assert.assertEquals(formLogins.get(), 1, "Login form was used although state is cached");
+        Assert.assertTrue(authenticationPage().isLoggedIn(), "Restored state is not logged in");
+    }
+
+    @Test(description = "Wrong password is not restored", dependsOnMethods = "cachedStateIsRestoredTest")
+    @Description("Login with wrong password goes through login form and fails although state of the user is cached")
+    public void wrongPasswordIsNotRestoredTest() {
+        webDriver().manage().deleteAllCookies();
+
+        authenticationPage().logIn(EMAIL, WRONG_PASSWORD);
+
+        Assert.assertEquals(formLogins.get(), 2, "Login form was not used for wrong password");
+        Assert.assertFalse(authenticationPage().isLoggedIn(), "User is logged in with wrong password");
+    }
+
+    @Test(description = "Failed login is not cached", dependsOnMethods = "wrongPasswordIsNotRestoredTest")
+    @Description("State of failed login is not cached, the next login with wrong password uses login form again")
+    public void failedLoginIsNotCachedTest() {
+        authenticationPage().logIn(EMAIL, WRONG_PASSWORD);
+
+        Assert.assertEquals(formLogins.get(), 3, "Failed login was restored from cache");
+        Assert.assertFalse(authenticationPage().isLoggedIn(), "User is logged in with wrong password");
+    }
+
+    @Test(description = "State rejected by site is replaced", dependsOnMethods = "failedLoginIsNotCachedTest")
+    @Description("When site ended the cached session user is logged in through login form again")
+    public void stateRejectedBySiteIsReplacedTest() {
+        // Shop ends all sessions, e.g. by restart or session timeout
+        shopSessions.clear();
+
+        authenticationPage().logIn(EMAIL, PASSWORD);
+
+        Assert.assertEquals(formLogins.get(), 4, "Login form was not used after site rejected restored state");
+        Assert.assertTrue(authenticationPage().isLoggedIn(), "User is not logged in");
+    }
+
+    @Test(description = "Invalidated state is replaced", dependsOnMethods = "stateRejectedBySiteIsReplacedTest")
+    @Description("After state is invalidated user is logged in through login form again")
+    public void invalidatedStateIsReplacedTest() {
+        SessionStateCache.invalidate(EMAIL, strSiteUrl);
+        webDriver().manage().deleteAllCookies();
+
+        authenticationPage().logIn(EMAIL, PASSWORD);
+
+        Assert.assertEquals(formLogins.get(), 5, "Login form was not used after state was invalidated");
+        Assert.assertTrue(authenticationPage().isLoggedIn(), "User is not logged in");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final Map<String, String> form = new HashMap<>();
+        try (InputStream input = exchange.getRequestBody()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            for (int read = input.read(); read != -1; read = input.read()) {
+                output.write(read);
+            }
+            for (String strField : new String(output.toByteArray(), StandardCharsets.UTF_8).split("&")) {
+                final String[] field = strField.split("=", 2);
+                form.put(URLDecoder.decode(field[0], StandardCharsets.UTF_8.name()),
+                        field.length > 1 ? URLDecoder.decode(field[1], StandardCharsets.UTF_8.name()) : "");
+            }
+        }
+        final String strQuery = String.valueOf(exchange.getRequestURI().getQuery());
+        if ("POST".equals(exchange.getRequestMethod()) && strQuery.contains("controller=authentication")) {
+            formLogins.incrementAndGet();
+            if (!EMAIL.equals(form.get("email")) || !PASSWORD.equals(form.get("passwd"))) {
+                respond(exchange, loginPage("<p class=\"alert alert-danger\">Authentication failed.</p>"));
+                return;
+            }
+            final String strSession = UUID.randomUUID().toString();
+            shopSessions.add(strSession);
+            exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + strSession + "; Path=/; HttpOnly");
+            exchange.getResponseHeaders().add("Location", "index.php?controller=my-account");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+            return;
+        }
+        final String strBody;
+        if (strQuery.contains("controller=authentication")) {
+            strBody = loginPage("");
+        } else if (strQuery.contains("controller=my-account")) {
+            strBody = page("My account - My Store", isLoggedIn(exchange)
+                    ? "<a class=\"logout\" href=\"#\">Sign out</a>" : "<a class=\"login\" href=\"#\">Sign in</a>");
+        } else {
+            strBody = "User-agent: *";
+        }
+        respond(exchange, strBody);
+    }
+
+    private static void respond(HttpExchange exchange, String strBody) throws IOException {
+        final byte[] body = strBody.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", strBody.startsWith("<") ? "text/html; charset=utf-8" : "text/plain");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private boolean isLoggedIn(HttpExchange exchange) {
+        final String strCookies = String.valueOf(exchange.getRequestHeaders().getFirst("Cookie"));
+        return shopSessions.stream().anyMatch(strSession -> strCookies.contains(SESSION_COOKIE + "=" + strSession));
+    }
+
+    private static String loginPage(String strAlert) {
+        return page("Login - My Store", "<h1 class=\"page-heading\">Authentication</h1>" + strAlert
+                + "<form action=\"index.php?controller=authentication\" method=\"post\">"
+                + "<input id=\"email\" name=\"email\"/><input id=\"passwd\" name=\"passwd\" type=\"password\"/>"
+                + "<button id=\"SubmitLogin\" type=\"submit\">Sign in</button></form>");
+    }
+
+    private static String page(String strTitle, String strContent) {
+        return "<!DOCTYPE html><html><head><title>" + strTitle + "</title></head><body>" + strContent + "</body></html>";
+    }
+}
@@ -0,0 +1,99 @@
+package sessionCreationTest;
+
+import exceptions.WebDriverFactoryException;
+import factory.driver.SessionCreationRetry;
+import io.qameta.allure.Description;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks retries of session creation with stub session supplier, no browser is needed.
+ */
+public class SessionCreationRetryTest {
+
+    private static final long BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    @Test(description = "Failed creation is retried")
+    @Description("Session is created by the first attempt which succeeds")
+    public void failedCreationIsRetriedTest() {
+        AtomicInteger calls = new AtomicInteger();
+        WebDriver driver = StubWebDriver.create(new AtomicInteger());
+
+        WebDriver created = new SessionCreationRetry(3, 1, 1).create(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new SessionNotCreatedException("Grid is busy");
+            }
+            return driver;
+        });
+
+        Assert.assertSame(created, driver);
+        Assert.assertEquals(calls.get(), 3, "Number of attempts");
+    }
+
+    @Test(description = "Last failure is thrown after all attempts")
+    @Description("Creation is attempted \"session.create.attempts\" times, then the last failure is thrown")
+    public void lastFailureIsThrownAfterAllAttemptsTest() {
+        AtomicInteger calls = new AtomicInteger();
+
+        try {
+            new SessionCreationRetry(3, 1, 1).create(() -> {
+                throw new SessionNotCreatedException("Attempt " + calls.incrementAndGet());
+            });
+            Assert.fail("Session creation did not fail");
+        } catch (SessionNotCreatedException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Attempt 3"), "Failure of the last attempt is not thrown");
+        }
+        Assert.assertEquals(calls.get(), 3, "Number of attempts");
+    }
+
+    @Test(description = "Configuration problem is not retried")
+    @Description("WebDriverFactoryException is thrown at once")
+    public void configurationProblemIsNotRetriedTest() {
+        AtomicInteger calls = new AtomicInteger();
+
+        try {
+            new SessionCreationRetry(3, 1, 1).create(() -> {
+                calls.incrementAndGet();
+                throw new WebDriverFactoryException("Unsupported browser");
+            });
+            Assert.fail("Session creation did not fail");
+        } catch (WebDriverFactoryException e) {
+            Assert.assertEquals(calls.get(), 1, "Number of attempts");
+        }
+    }
+
+    @Test(description = "At least one attempt is made")
+    @Description("Creation is attempted once when attempts are set below one")
+    public void atLeastOneAttemptIsMadeTest() {
+        AtomicInteger calls = new AtomicInteger();
+
+        try {
+            new SessionCreationRetry(0, 1, 1).create(() -> {
+                calls.incrementAndGet();
+                throw new SessionNotCreatedException("Grid is busy");
+            });
+            Assert.fail("Session creation did not fail");
+        } catch (SessionNotCreatedException e) {
+            Assert.assertEquals(calls.get(), 1, "Number of attempts");
+        }
+    }
+
+    @Test(description = "Backoff grows exponentially up to the bound")
+    @Description("Delay is between half and full backoff, backoff doubles after every attempt and is capped")
+    public void backoffGrowsUpToBoundTest() {
+        SessionCreationRetry retry = new SessionCreationRetry(10, BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+        for (int attempt = 1; attempt <= 40; attempt++) {
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+            for (int sample = 0; sample < 100; sample++) {
+                long delay = retry.getDelay(attempt);
+                Assert.assertTrue(delay >= backoff / 2 && delay <= backoff,
+                        "Delay " + delay + " of attempt " + attempt + " is out of [" + backoff / 2 + ", " + backoff + "]");
+            }
+        }
+    }
+}
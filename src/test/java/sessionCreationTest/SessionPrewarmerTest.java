@@ -0,0 +1,166 @@
+package sessionCreationTest;
+
+import factory.driver.SessionPrewarmer;
+import io.qameta.allure.Description;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Checks claim and close of prewarmed sessions with stub sessions, no browser is needed.
+ */
+public class SessionPrewarmerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private ExecutorService claimers;
+
+    @BeforeMethod()
+    public void startClaimers() {
+        claimers = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cancelClaims() {
+        claimers.shutdownNow();
+    }
+
+    @Test(description = "Prewarmed sessions are claimed")
+    @Description("Every launched session is handed out once, claim returns null when all are handed out")
+    public void prewarmedSessionsAreClaimedTest() {
+        AtomicInteger launches = new AtomicInteger();
+        SessionPrewarmer prewarmer = new SessionPrewarmer(() -> {
+            launches.incrementAndGet();
+            return StubWebDriver.create(new AtomicInteger());
+        });
+        try {
+            prewarmer.prewarm(2);
+
+            WebDriver first = prewarmer.claim();
+            WebDriver second = prewarmer.claim();
+
+            Assert.assertNotNull(first, "First session is not claimed");
+            Assert.assertNotNull(second, "Second session is not claimed");
+            Assert.assertNotSame(first, second, "Session is claimed twice");
+            Assert.assertNull(prewarmer.claim(), "Session is claimed after all sessions are handed out");
+            Assert.assertEquals(launches.get(), 2, "Number of launched sessions");
+        } finally {
+            prewarmer.close();
+        }
+    }
+
+    @Test(description = "Claim waits for launch in progress")
+    @Description("Claim waits for session which is still being launched instead of returning null")
+    public void claimWaitsForLaunchInProgressTest() throws Exception {
+        CountDownLatch launchAllowed = new CountDownLatch(1);
+        WebDriver driver = StubWebDriver.create(new AtomicInteger());
+        SessionPrewarmer prewarmer = new SessionPrewarmer(awaiting(launchAllowed, driver));
+        try {
+            prewarmer.prewarm(1);
+            Future<WebDriver> claim = claimers.submit(prewarmer::claim);
+
+            assertWaiting(claim);
+            launchAllowed.countDown();
+
+            Assert.assertSame(claim.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), driver);
+        } finally {
+            launchAllowed.countDown();
+            prewarmer.close();
+        }
+    }
+
+    @Test(description = "Failed launch does not block claim")
+    @Description("Claim returns null when launch fails, so session is created on demand")
+    public void failedLaunchDoesNotBlockClaimTest() throws Exception {
+        SessionPrewarmer prewarmer = new SessionPrewarmer(() -> {
+            throw new SessionNotCreatedException("Grid is busy");
+        });
+        try {
+            prewarmer.prewarm(1);
+
+            Assert.assertNull(claimers.submit(prewarmer::claim).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            prewarmer.close();
+        }
+    }
+
+    @Test(description = "Close releases waiting claim")
+    @Description("Claim waiting for launch in progress returns null when prewarmer is closed")
+    public void closeReleasesWaitingClaimTest() throws Exception {
+        CountDownLatch launchAllowed = new CountDownLatch(1);
+        AtomicInteger quits = new AtomicInteger();
+        SessionPrewarmer prewarmer = new SessionPrewarmer(awaiting(launchAllowed, StubWebDriver.create(quits)));
+        try {
+            prewarmer.prewarm(1);
+            Future<WebDriver> claim = claimers.submit(prewarmer::claim);
+            assertWaiting(claim);
+
+            prewarmer.close();
+
+            Assert.assertNull(claim.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Session is claimed from closed prewarmer");
+        } finally {
+            launchAllowed.countDown();
+        }
+        // Session which finished launching after close is quit by launching thread
+        awaitQuits(quits, 1);
+    }
+
+    @Test(description = "Close quits unclaimed sessions")
+    @Description("Ready sessions which were not claimed are quit, claimed sessions are left to their owner")
+    public void closeQuitsUnclaimedSessionsTest() throws Exception {
+        AtomicInteger claimedQuits = new AtomicInteger();
+        AtomicInteger unclaimedQuits = new AtomicInteger();
+        AtomicInteger launches = new AtomicInteger();
+        SessionPrewarmer prewarmer = new SessionPrewarmer(() -> launches.incrementAndGet() == 1
+                ? StubWebDriver.create(claimedQuits) : StubWebDriver.create(unclaimedQuits));
+        prewarmer.prewarm(1);
+        Assert.assertNotNull(prewarmer.claim(), "Session is not claimed");
+        prewarmer.prewarm(2);
+
+        prewarmer.close();
+
+        awaitQuits(unclaimedQuits, 2);
+        Assert.assertEquals(claimedQuits.get(), 0, "Claimed session is quit");
+        Assert.assertNull(prewarmer.claim(), "Session is claimed from closed prewarmer");
+    }
+
+    private static Supplier<WebDriver> awaiting(CountDownLatch launchAllowed, WebDriver driver) {
+        return () -> {
+            try {
+                launchAllowed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return driver;
+        };
+    }
+
+    private static void assertWaiting(Future<WebDriver> claim) throws Exception {
+        try {
+            claim.get(200, TimeUnit.MILLISECONDS);
+            Assert.fail("Claim did not wait for launch in progress");
+        } catch (TimeoutException e) {
+            // Claim waits
+        }
+    }
+
+    private static void awaitQuits(AtomicInteger quits, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (quits.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(quits.get(), expected, "Number of quit sessions");
+    }
+}
@@ -0,0 +1,35 @@
+package sessionCreationTest;
+
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebDriver stand-in without browser which only counts quits.
+ */
+final class StubWebDriver {
+
+    private StubWebDriver() {
+        // Empty constructor
+    }
+
+    static WebDriver create(AtomicInteger quits) {
+        return (WebDriver) Proxy.newProxyInstance(StubWebDriver.class.getClassLoader(), new Class<?>[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "quit":
+                            quits.incrementAndGet();
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubWebDriver@" + Integer.toHexString(System.identityHashCode(proxy));
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,108 @@
+package sessionHealthTest;
+
+import factory.driver.SessionHealth;
+import io.qameta.allure.Description;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks classification of command failures and recycle thresholds of session health, no browser is needed.
+ */
+public class SessionHealthTest {
+
+    @Test(description = "Expected failures are not counted")
+    @Description("Failures which tests and waits cause on purpose do not count towards failure threshold")
+    public void expectedFailuresAreNotCountedTest() {
+        SessionHealth health = new SessionHealth();
+        health.recordCommand(new NoSuchElementException("No element"));
+        health.recordCommand(new StaleElementReferenceException("Stale element"));
+        health.recordCommand(new ElementNotInteractableException("Hidden element"));
+        health.recordCommand(new TimeoutException("Wait timed out"));
+
+        Assert.assertNull(health.getRecycleReason(0, 0, 1), "Expected failure is counted");
+        Assert.assertNull(health.getBrokenReason(), "Expected failure breaks session");
+    }
+
+    @Test(description = "Unexpected failures are counted")
+    @Description("Session reaches failure threshold after as many unexpected failures")
+    public void unexpectedFailuresAreCountedTest() {
+        SessionHealth health = new SessionHealth();
+        health.recordCommand(new WebDriverException("unknown error: cannot determine loading status"));
+        Assert.assertNull(health.getRecycleReason(0, 0, 2), "Session is recycled before failure threshold");
+
+        health.recordCommand(new WebDriverException("unknown error: cannot determine loading status"));
+
+        Assert.assertEquals(health.getRecycleReason(0, 0, 2), "2 failed commands");
+        Assert.assertNull(health.getBrokenReason(), "Unexpected failure breaks session");
+    }
+
+    @Test(description = "Infrastructure errors break session")
+    @Description("Lost browser or session breaks session at once, regardless of thresholds")
+    public void infrastructureErrorsBreakSessionTest() {
+        SessionHealth unreachable = new SessionHealth();
+        unreachable.recordCommand(new UnreachableBrowserException("Browser is gone"));
+        SessionHealth lost = new SessionHealth();
+        lost.recordCommand(new NoSuchSessionException("Session is gone"));
+        SessionHealth invalid = new SessionHealth();
+        invalid.recordCommand(new WebDriverException("invalid session id"));
+
+        Assert.assertEquals(unreachable.getBrokenReason(), "UnreachableBrowserException");
+        Assert.assertEquals(lost.getBrokenReason(), "NoSuchSessionException");
+        Assert.assertEquals(invalid.getBrokenReason(), "WebDriverException");
+        Assert.assertEquals(unreachable.getRecycleReason(0, 0, 0), "UnreachableBrowserException",
+                "Broken session is not recycled without thresholds");
+    }
+
+    @Test(description = "Infrastructure errors are recognised by message")
+    @Description("Generic WebDriverException is infrastructure error when its message reports lost session")
+    public void infrastructureErrorsAreRecognisedByMessageTest() {
+        Assert.assertTrue(SessionHealth.isInfrastructureError(new WebDriverException("Session not found")));
+        Assert.assertTrue(SessionHealth.isInfrastructureError(new WebDriverException("chrome not reachable")));
+        Assert.assertFalse(SessionHealth.isInfrastructureError(new WebDriverException("element click intercepted")));
+        Assert.assertFalse(SessionHealth.isInfrastructureError(new WebDriverException((String) null)));
+    }
+
+    @Test(description = "Command threshold is checked")
+    @Description("Session reaches command threshold after as many commands, succeeded or failed")
+    public void commandThresholdIsCheckedTest() {
+        SessionHealth health = new SessionHealth();
+        health.recordCommand(null);
+        health.recordCommand(new NoSuchElementException("No element"));
+        Assert.assertNull(health.getRecycleReason(0, 3, 0), "Session is recycled before command threshold");
+
+        health.recordCommand(null);
+
+        Assert.assertEquals(health.getRecycleReason(0, 3, 0), "3 commands");
+        Assert.assertNull(health.getBrokenReason(), "Session over command threshold is broken");
+    }
+
+    @Test(description = "Age threshold is checked")
+    @Description("Session reaches age threshold when it was created so long ago")
+    public void ageThresholdIsCheckedTest() {
+        SessionHealth health = new SessionHealth(System.nanoTime() - TimeUnit.SECONDS.toNanos(120));
+
+        Assert.assertEquals(health.getRecycleReason(60, 0, 0), "age of 120 s");
+        Assert.assertNull(health.getRecycleReason(600, 0, 0), "Session is recycled before age threshold");
+        Assert.assertNull(health.getBrokenReason(), "Old session is broken");
+    }
+
+    @Test(description = "Thresholds below one are not checked")
+    @Description("Session is not recycled by thresholds which are 0")
+    public void thresholdsBelowOneAreNotCheckedTest() {
+        SessionHealth health = new SessionHealth(System.nanoTime() - TimeUnit.HOURS.toNanos(5));
+        for (int index = 0; index < 100; index++) {
+            health.recordCommand(new WebDriverException("unknown error"));
+        }
+
+        Assert.assertNull(health.getRecycleReason(0, 0, 0), "Session is recycled by threshold 0");
+    }
+}